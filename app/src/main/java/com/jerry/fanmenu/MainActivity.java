@@ -33,5 +33,9 @@ public class MainActivity extends AppCompatActivity {
 
     private void initView() {
         llFanContainer = (FanContainerLinearLayout) findViewById(R.id.ll_container);
+        llFanContainer.setIconSize(getResources().getDimensionPixelSize(R.dimen.fan_icon_size));
+        llFanContainer.setAsyncDecode(true);
+        // 提前解码菜单图标
+        llFanContainer.prewarm();
     }
 }
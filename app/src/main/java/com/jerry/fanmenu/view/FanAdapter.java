@@ -0,0 +1,22 @@
+package com.jerry.fanmenu.view;
+
+import android.support.annotation.DrawableRes;
+
+/**
+ * 扇形菜单的数据源，菜单项很多时使用
+ * <p>
+ * 菜单只显示固定个数的扇形，在扇形内侧的圆盘上转动手指可以逐格滚动，只有显示出来的菜单项才会解码图标
+ */
+public interface FanAdapter {
+    /**
+     * @return 菜单项个数
+     */
+    int getCount();
+
+    /**
+     * @param position 菜单项序号
+     * @return 菜单项的图标ID
+     */
+    @DrawableRes
+    int getIconId(int position);
+}
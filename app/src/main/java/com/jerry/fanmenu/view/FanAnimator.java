@@ -0,0 +1,144 @@
+package com.jerry.fanmenu.view;
+
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * 由Choreographer逐帧驱动的扇形动画引擎
+ * <p>
+ * 每帧只有一次回调，直接把当前时间（毫秒，浮点数）交给监听者，不用反射也没有装箱。
+ * 支持中途打断和反向播放，同一个实例在多次弹出之间复用
+ */
+final class FanAnimator implements Choreographer.FrameCallback {
+    interface Listener {
+        /**
+         * 每一帧回调
+         *
+         * @param time 当前动画时间（毫秒）
+         */
+        void onAnimFrame(float time);
+
+        /**
+         * 动画播放到头（被cancel时不回调）
+         *
+         * @param isReversed 是否是反向播放
+         */
+        void onAnimEnd(boolean isReversed);
+    }
+
+    private final Listener listener;
+    private Choreographer choreographer;
+
+    private float duration;
+    private float curTime;
+    private boolean isRunning;
+    private boolean isReversed;
+    // 上一帧的时间，0表示还没有收到第一帧
+    private long lastFrameNanos;
+
+    FanAnimator(@NonNull Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 从头正向播放
+     *
+     * @param duration 总时长（毫秒）
+     */
+    void start(float duration) {
+        this.duration = duration;
+        this.curTime = 0;
+        this.isReversed = false;
+        run();
+        listener.onAnimFrame(curTime);
+    }
+
+    /**
+     * 从当前时间反向播放到0（可以在正向播放中途调用）
+     */
+    void reverse() {
+        this.isReversed = true;
+        if (curTime <= 0) {
+            stop();
+            listener.onAnimEnd(true);
+            return;
+        }
+        run();
+    }
+
+    /**
+     * 直接跳到当前方向的终点
+     */
+    void end() {
+        if (!isRunning) {
+            return;
+        }
+        stop();
+        curTime = isReversed ? 0 : duration;
+        listener.onAnimFrame(curTime);
+        listener.onAnimEnd(isReversed);
+    }
+
+    /**
+     * 停止播放，不回调
+     */
+    void cancel() {
+        stop();
+    }
+
+    boolean isRunning() {
+        return isRunning;
+    }
+
+    boolean isReversed() {
+        return isReversed;
+    }
+
+    private void run() {
+        if (choreographer == null) {
+            choreographer = Choreographer.getInstance();
+        }
+        // 从下一帧开始重新计时
+        lastFrameNanos = 0;
+        if (!isRunning) {
+            isRunning = true;
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    private void stop() {
+        if (isRunning) {
+            isRunning = false;
+            choreographer.removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!isRunning) {
+            return;
+        }
+
+        float deltaTime = lastFrameNanos == 0 ? 0 : (frameTimeNanos - lastFrameNanos) / 1000000f;
+        lastFrameNanos = frameTimeNanos;
+
+        boolean isFinished;
+        if (isReversed) {
+            curTime = Math.max(0, curTime - deltaTime);
+            isFinished = curTime <= 0;
+        } else {
+            curTime = Math.min(duration, curTime + deltaTime);
+            isFinished = curTime >= duration;
+        }
+
+        if (isFinished) {
+            isRunning = false;
+        } else {
+            choreographer.postFrameCallback(this);
+        }
+        listener.onAnimFrame(curTime);
+        if (isFinished) {
+            listener.onAnimEnd(isReversed);
+        }
+    }
+}
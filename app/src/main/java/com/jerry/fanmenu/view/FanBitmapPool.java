@@ -0,0 +1,93 @@
+package com.jerry.fanmenu.view;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可复用位图池（供BitmapFactory.Options.inBitmap使用）
+ * <p>
+ * 只保存可变位图，按总字节数限制大小，超出时丢弃最早放入的位图
+ */
+final class FanBitmapPool {
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private final int maxBytes;
+    private int curBytes;
+
+    FanBitmapPool(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 取出一个能容纳指定尺寸的位图
+     *
+     * @param width  宽度
+     * @param height 高度
+     * @param config 像素格式
+     * @return 可复用的位图，没有合适的则返回null
+     */
+    synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        int needBytes = width * height * getBytesPerPixel(config);
+        // 选出能容纳的最小位图，避免大位图被小图标占用
+        int bestIndex = -1;
+        int bestBytes = Integer.MAX_VALUE;
+        for (int i = 0; i < bitmaps.size(); i++) {
+            int bytes = bitmaps.get(i).getAllocationByteCount();
+            if (bytes >= needBytes && bytes < bestBytes) {
+                bestIndex = i;
+                bestBytes = bytes;
+            }
+        }
+        if (bestIndex < 0) {
+            return null;
+        }
+        curBytes -= bestBytes;
+        return bitmaps.remove(bestIndex);
+    }
+
+    /**
+     * 放回一个不再使用的位图
+     *
+     * @param bitmap 位图
+     */
+    synchronized void put(@NonNull Bitmap bitmap) {
+        if (!bitmap.isMutable() || bitmap.isRecycled()) {
+            return;
+        }
+        int bytes = bitmap.getAllocationByteCount();
+        if (bytes > maxBytes) {
+            return;
+        }
+        while (curBytes + bytes > maxBytes && !bitmaps.isEmpty()) {
+            curBytes -= bitmaps.remove(0).getAllocationByteCount();
+        }
+        bitmaps.add(bitmap);
+        curBytes += bytes;
+    }
+
+    /**
+     * 清空位图池
+     */
+    synchronized void clear() {
+        bitmaps.clear();
+        curBytes = 0;
+    }
+
+    /**
+     * @return 当前占用的字节数
+     */
+    synchronized int getSizeInBytes() {
+        return curBytes;
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        } else if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        return 4;
+    }
+}
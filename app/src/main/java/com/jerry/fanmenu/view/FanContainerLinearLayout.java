@@ -2,13 +2,14 @@ package com.jerry.fanmenu.view;
 
 import android.content.Context;
 import android.graphics.PointF;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
+import android.view.ViewConfiguration;
 import android.widget.LinearLayout;
 
-import com.jerry.fanmenu.Constant;
 import com.jerry.fanmenu.R;
 
 /**
@@ -23,6 +24,69 @@ public class FanContainerLinearLayout extends LinearLayout {
     private FanMenu fanMenu;
     private PointF touchPoint = new PointF();
     private FanMenu.OnFanSelectedListener onFanSelectedListener;
+    private FanMenu.OnFanHoverListener onFanHoverListener;
+    // 菜单图标ID
+    private int[] menuDrawableIds = {R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round};
+    // 是否在后台解码图标
+    private boolean asyncDecode;
+    // 图标显示尺寸（0表示使用图片原始尺寸）
+    private int iconSize;
+    // 是否缓存完全展开后的扇形
+    private boolean layerCacheEnabled;
+    // 是否把所有图标拼成一张图集绘制
+    private boolean atlasEnabled;
+    // 是否缓存布局结果
+    private boolean layoutCacheEnabled;
+    // 扇形菜单的显示方式
+    private int hostMode = FanMenu.HOST_WINDOW;
+    // 关闭时是否反向播放入场动画
+    private boolean dismissAnimEnabled;
+    // 图标入场动画的缓动曲线
+    private int easing = FanMenu.EASING_LINEAR;
+    private int[] itemEasings;
+    // 性能数据监听
+    private FanMetricsListener metricsListener;
+    // 是否按帧间隔自动调整绘制质量
+    private boolean adaptiveQualityEnabled;
+    // 选中预测（为空时不预测）
+    private FanSelectionPredictor selectionPredictor;
+    // 菜单项很多时使用的数据源（设置后忽略menuDrawableIds）
+    private FanAdapter adapter;
+    private int visibleSlotCount = FanMenu.DEFAULT_VISIBLE_SLOT_COUNT;
+    // 触摸事件记录（release包中为空）
+    private final FanTouchTrace touchTrace = FanTouchTrace.ENABLED ? new FanTouchTrace() : null;
+
+    // 按住多久后弹出菜单（毫秒，0表示按下立即弹出）
+    private int longPressDelay = ViewConfiguration.getLongPressTimeout();
+    // 弹出前手指移动超过这个距离就不再弹出，事件交给子视图（像素，小于0表示使用系统默认值）
+    private int touchSlop = -1;
+    // 按下的时间和位置
+    private long downTime;
+    private float downX;
+    private float downY;
+    // 是否在等待长按
+    private boolean isWaitingLongPress;
+    // 扇形菜单是否接管了这次手势（接管后子视图不再收到事件）
+    private boolean isFanOwner;
+    // 长按时间到了，弹出菜单并让子视图取消这次手势
+    private final Runnable longPressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isWaitingLongPress = false;
+            try {
+                showFan(SystemClock.uptimeMillis());
+            } catch (RuntimeException e) {
+                if (FanTouchTrace.ENABLED) {
+                    touchTrace.dump(TAG, e.toString());
+                }
+                throw e;
+            }
+
+            MotionEvent cancel = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_CANCEL, touchPoint.x, touchPoint.y, 0);
+            FanContainerLinearLayout.super.dispatchTouchEvent(cancel);
+            cancel.recycle();
+        }
+    };
 
     public FanContainerLinearLayout(Context context) {
         super(context);
@@ -40,45 +104,295 @@ public class FanContainerLinearLayout extends LinearLayout {
         this.onFanSelectedListener = onFanSelectedListener;
     }
 
+    public void setOnFanHoverListener(FanMenu.OnFanHoverListener onFanHoverListener) {
+        this.onFanHoverListener = onFanHoverListener;
+    }
+
+    public void setMenuDrawableIds(@NonNull int[] menuDrawableIds) {
+        this.menuDrawableIds = menuDrawableIds;
+    }
+
+    /**
+     * 设置是否在后台解码菜单图标
+     *
+     * @param asyncDecode 是否在后台解码
+     */
+    public void setAsyncDecode(boolean asyncDecode) {
+        this.asyncDecode = asyncDecode;
+    }
+
+    /**
+     * 设置菜单图标的显示尺寸，图标会按这个尺寸解码
+     *
+     * @param iconSize 图标尺寸（像素，0表示使用图片原始尺寸）
+     */
+    public void setIconSize(int iconSize) {
+        this.iconSize = iconSize;
+    }
+
+    /**
+     * 设置是否缓存完全展开后的扇形，开启后选中变化时只绘制缓存图层和选中的图标
+     *
+     * @param layerCacheEnabled 是否缓存
+     */
+    public void setLayerCacheEnabled(boolean layerCacheEnabled) {
+        this.layerCacheEnabled = layerCacheEnabled;
+    }
+
+    /**
+     * 设置扇形菜单的显示方式
+     *
+     * @param hostMode {@link FanMenu#HOST_WINDOW}（PopupWindow）或{@link FanMenu#HOST_OVERLAY}（直接画在容器上）
+     */
+    public void setHostMode(int hostMode) {
+        this.hostMode = hostMode;
+    }
+
+    /**
+     * 设置关闭菜单时是否反向播放入场动画
+     *
+     * @param dismissAnimEnabled 是否播放关闭动画
+     */
+    public void setDismissAnimEnabled(boolean dismissAnimEnabled) {
+        this.dismissAnimEnabled = dismissAnimEnabled;
+    }
+
+    /**
+     * 设置所有图标入场动画的缓动曲线
+     *
+     * @param easing {@link FanMenu#EASING_LINEAR}、{@link FanMenu#EASING_DECELERATE}、{@link FanMenu#EASING_OVERSHOOT}或{@link FanMenu#EASING_SPRING}
+     */
+    public void setEasing(int easing) {
+        this.easing = easing;
+    }
+
+    /**
+     * 给每个图标单独设置入场动画的缓动曲线
+     *
+     * @param itemEasings 每个图标的缓动曲线，没有指定的图标使用{@link #setEasing(int)}的曲线
+     */
+    public void setItemEasings(int[] itemEasings) {
+        this.itemEasings = itemEasings;
+    }
+
+    /**
+     * 设置性能数据监听，可以直接使用{@link FanMetricsRecorder}
+     *
+     * @param metricsListener 性能数据监听，为空时不做任何计时
+     */
+    public void setMetricsListener(FanMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * 使用数据源提供菜单项，只解码和绘制显示出来的扇形，在扇形内侧转动手指可以逐格滚动（需要设置图标尺寸）
+     *
+     * @param adapter          数据源，为空时使用{@link #setMenuDrawableIds(int[])}的图标
+     * @param visibleSlotCount 同时显示的扇形个数
+     */
+    public void setAdapter(FanAdapter adapter, int visibleSlotCount) {
+        this.adapter = adapter;
+        this.visibleSlotCount = visibleSlotCount;
+    }
+
+    /**
+     * 设置是否按最近的帧间隔自动调整绘制质量，掉帧时依次关闭抖动、选中图标放大、所有图标同时动画，帧率恢复后再逐级打开
+     *
+     * @param adaptiveQualityEnabled 是否自动调整绘制质量
+     */
+    public void setAdaptiveQualityEnabled(boolean adaptiveQualityEnabled) {
+        this.adaptiveQualityEnabled = adaptiveQualityEnabled;
+    }
+
+    /**
+     * 设置是否把所有图标拼成一张图集绘制，开启硬件加速时可以减少纹理上传并合并绘制（使用数据源时无效）
+     *
+     * @param atlasEnabled 是否使用图集
+     */
+    public void setAtlasEnabled(boolean atlasEnabled) {
+        this.atlasEnabled = atlasEnabled;
+    }
+
+    /**
+     * 设置是否缓存布局结果，在相近位置重复长按时跳过布局计算，命中率见{@link FanLayoutCache#getHitRate()}
+     *
+     * @param layoutCacheEnabled 是否缓存
+     */
+    public void setLayoutCacheEnabled(boolean layoutCacheEnabled) {
+        this.layoutCacheEnabled = layoutCacheEnabled;
+    }
+
+    /**
+     * 设置选中预测：根据滑动速度提前高亮手指即将到达的图标，抬起时仍以真实位置为准
+     *
+     * @param selectionPredictor 选中预测，为空时关闭预测
+     */
+    public void setSelectionPredictor(FanSelectionPredictor selectionPredictor) {
+        this.selectionPredictor = selectionPredictor;
+    }
+
+    /**
+     * 设置按住多久后弹出菜单，在这之前的点击和滑动都直接交给子视图，不会创建菜单
+     *
+     * @param longPressDelay 长按时间（毫秒），0表示按下立即弹出
+     */
+    public void setLongPressDelay(int longPressDelay) {
+        this.longPressDelay = longPressDelay;
+    }
+
+    /**
+     * 设置弹出前允许手指移动的距离，超过后这次手势不再弹出菜单
+     *
+     * @param touchSlop 距离（像素），小于0表示使用系统默认值
+     */
+    public void setTouchSlop(int touchSlop) {
+        this.touchSlop = touchSlop;
+    }
+
+    private int getTouchSlop() {
+        if (touchSlop < 0) {
+            touchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+        }
+        return touchSlop;
+    }
+
+    /**
+     * 预先解码菜单图标，让第一次弹出菜单时不必等待解码
+     */
+    public void prewarm() {
+        FanMenu.prewarm(getContext(), menuDrawableIds, iconSize);
+    }
+
+    /**
+     * @return 上一次从按下到菜单第一帧的耗时（毫秒），还没有统计到时返回-1
+     */
+    public long getLastShowLatency() {
+        return fanMenu != null ? fanMenu.getLastShowLatency() : -1;
+    }
+
+    /**
+     * 输出最近的触摸事件记录（只在debug包中有效）
+     */
+    public void dumpTouchTrace() {
+        if (FanTouchTrace.ENABLED) {
+            touchTrace.dump(TAG, "requested");
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(longPressRunnable);
+        isWaitingLongPress = false;
+        isFanOwner = false;
+        // 释放复用的PopupWindow或Overlay，避免窗口泄漏
+        if (fanMenu != null) {
+            fanMenu.release(this);
+        }
+    }
+
     @Override
     public boolean dispatchTouchEvent(MotionEvent ev) {
-        if (ev.getAction() < Constant.ACTION_MAP.length) {
-            Log.e(TAG, "dispatchTouchEvent: " + Constant.ACTION_MAP[ev.getAction()] + " (" + ev.getX() + "," + ev.getY() + ")");
+        boolean isFanEvent;
+        try {
+            isFanEvent = handleFanTouchEvent(ev);
+        } catch (RuntimeException e) {
+            // 出错时把之前的触摸事件一起输出，方便还原现场
+            if (FanTouchTrace.ENABLED) {
+                touchTrace.dump(TAG, e.toString());
+            }
+            throw e;
+        }
+
+        // 扇形菜单接管手势后，子视图不再收到事件
+        if (!isFanEvent) {
+            super.dispatchTouchEvent(ev);
         }
+        return true;
+    }
 
+    /**
+     * 生成并显示扇形菜单，接管这次手势
+     *
+     * @param showTime 开始弹出的时间，用于统计弹出耗时
+     */
+    private void showFan(long showTime) {
+        isFanOwner = true;
+        if (fanMenu == null) {
+            // 每个容器有自己的菜单，之后一直复用
+            fanMenu = FanMenu.create();
+        }
+        fanMenu.resetParam().setTouchPoint(touchPoint).setTouchDownTime(showTime).setMenuDrawableIds(menuDrawableIds).setTotalAnimDuration(500).setEachAnimDuration(200).setAsyncDecode(asyncDecode).setIconSize(iconSize).setLayerCacheEnabled(layerCacheEnabled).setAtlasEnabled(atlasEnabled).setLayoutCacheEnabled(layoutCacheEnabled).setHostMode(hostMode).setDismissAnimEnabled(dismissAnimEnabled).setEasing(easing).setItemEasings(itemEasings).setMetricsListener(metricsListener).setAdaptiveQualityEnabled(adaptiveQualityEnabled).setOnFanSelectedListener(onFanSelectedListener).setOnFanHoverListener(onFanHoverListener).setSelectionPredictor(selectionPredictor).setAdapter(adapter).setVisibleSlotCount(visibleSlotCount).show(getContext(), this);
+    }
+
+    /**
+     * 长按手势判断和扇形菜单的事件处理
+     *
+     * @param ev 触摸事件
+     * @return 这个事件是否由扇形菜单处理（为false时交给子视图）
+     */
+    private boolean handleFanTouchEvent(MotionEvent ev) {
         touchPoint.set(ev.getX(), ev.getY());
 
+        boolean isFanEvent = isFanOwner;
         switch (ev.getAction()) {
             case MotionEvent.ACTION_DOWN: {
-                // 生成扇形菜单
-                fanMenu = FanMenu.create().setTouchPoint(touchPoint).setMenuDrawableIds(new int[]{R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round, R.mipmap.ic_launcher_round}).setTotalAnimDuration(500).setEachAnimDuration(200).setOnFanSelectedListener(onFanSelectedListener).show(getContext(), this);
-                break;
-            }
-            case MotionEvent.ACTION_MOVE: {
-                // 将滑动事件传递到扇形菜单中
-                if (fanMenu != null) {
-                    fanMenu.onTouchEvent(ev);
+                removeCallbacks(longPressRunnable);
+                isFanOwner = false;
+                downTime = ev.getDownTime();
+                downX = ev.getX();
+                downY = ev.getY();
+                if (longPressDelay <= 0) {
+                    // 不需要长按，直接生成扇形菜单
+                    showFan(ev.getEventTime());
+                } else {
+                    // 等到长按时间到了再生成菜单，普通点击不会创建菜单
+                    isWaitingLongPress = true;
+                    postDelayed(longPressRunnable, longPressDelay);
                 }
+                isFanEvent = isFanOwner;
                 break;
             }
-            case MotionEvent.ACTION_UP: {
-                // 销毁扇形菜单
-                if (fanMenu != null) {
+            case MotionEvent.ACTION_MOVE: {
+                if (isFanOwner) {
+                    // 将滑动事件传递到扇形菜单中
                     fanMenu.onTouchEvent(ev);
-                    fanMenu.dismiss();
+                } else if (isWaitingLongPress) {
+                    float dx = ev.getX() - downX;
+                    float dy = ev.getY() - downY;
+                    int slop = getTouchSlop();
+                    if (dx * dx + dy * dy > slop * slop) {
+                        // 手指已经移动，这是一次滑动，不再弹出菜单
+                        cancelLongPress();
+                    }
                 }
                 break;
             }
+            case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL: {
-                // 销毁菜单
-                if (fanMenu != null) {
+                if (isFanOwner) {
+                    // 销毁扇形菜单
                     fanMenu.onTouchEvent(ev);
                     fanMenu.dismiss();
+                    isFanOwner = false;
+                } else {
+                    // 长按时间还没到，这是一次普通点击
+                    cancelLongPress();
                 }
+                break;
             }
         }
 
-        super.dispatchTouchEvent(ev);
-        return true;
+        if (FanTouchTrace.ENABLED) {
+            touchTrace.record(ev.getActionMasked(), ev.getX(), ev.getY(), ev.getEventTime(), isFanEvent && fanMenu != null ? fanMenu.getSelectedIndex() : -1);
+        }
+        return isFanEvent;
+    }
+
+    private void cancelLongPress() {
+        if (isWaitingLongPress) {
+            isWaitingLongPress = false;
+            removeCallbacks(longPressRunnable);
+        }
     }
 }
@@ -0,0 +1,92 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 扇形图标入场动画的缓动曲线（纯Java实现，不依赖Android）
+ * <p>
+ * 曲线只在布局时采样一次存入定长查找表，每帧只做一次查表和线性插值
+ */
+final class FanEasing {
+    // 线性
+    static final int LINEAR = 0;
+    // 减速
+    static final int DECELERATE = 1;
+    // 超出后回弹
+    static final int OVERSHOOT = 2;
+    // 弹簧
+    static final int SPRING = 3;
+    // 曲线种类数
+    static final int TYPE_COUNT = 4;
+
+    // 查找表的分段数
+    static final int TABLE_SIZE = 64;
+    // 回弹曲线的张力（与OvershootInterpolator默认值一致）
+    private static final float OVERSHOOT_TENSION = 2f;
+    // 弹簧曲线的阻尼和频率
+    private static final float SPRING_DAMPING = 6f;
+    private static final float SPRING_FREQUENCY = (float) (3 * Math.PI);
+
+    private final float[] table = new float[TABLE_SIZE + 1];
+
+    /**
+     * 创建并采样缓动曲线
+     *
+     * @param type 曲线种类
+     */
+    FanEasing(int type) {
+        if (type < 0 || type >= TYPE_COUNT) {
+            throw new IllegalArgumentException("Invalid easing type " + type);
+        }
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            table[i] = evaluate(type, i * 1f / TABLE_SIZE);
+        }
+        // 保证动画结束时图标刚好停在最终位置
+        table[0] = 0;
+        table[TABLE_SIZE] = 1;
+    }
+
+    /**
+     * 查表获取缓动后的进度
+     *
+     * @param input 线性进度（0~1）
+     * @return 缓动后的进度（回弹和弹簧曲线中途可能大于1）
+     */
+    float get(float input) {
+        if (input <= 0) {
+            return 0;
+        }
+        if (input >= 1) {
+            return 1;
+        }
+        float position = input * TABLE_SIZE;
+        int index = (int) position;
+        float fraction = position - index;
+        return table[index] + (table[index + 1] - table[index]) * fraction;
+    }
+
+    /**
+     * 直接计算曲线的值（只在采样时使用）
+     *
+     * @param type  曲线种类
+     * @param input 线性进度（0~1）
+     * @return 缓动后的进度
+     */
+    static float evaluate(int type, float input) {
+        switch (type) {
+            case DECELERATE: {
+                float remain = 1 - input;
+                return 1 - remain * remain;
+            }
+            case OVERSHOOT: {
+                float t = input - 1;
+                return t * t * ((OVERSHOOT_TENSION + 1) * t + OVERSHOOT_TENSION) + 1;
+            }
+            case SPRING: {
+                return (float) (1 - Math.exp(-SPRING_DAMPING * input) * Math.cos(SPRING_FREQUENCY * input));
+            }
+            case LINEAR:
+            default: {
+                return input;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 扇形菜单每一帧的绘制逻辑（纯Java实现，不依赖Android）
+ * <p>
+ * 根据布局、动画进度和选中状态算出每个图标的目标区域，输出到{@link FanRenderer}。
+ * 所有图标只有缩放和平移，因此每个图标都能用一个目标区域表示，绘制时不分配对象
+ */
+final class FanFrameDrawer {
+    // 选中图标的放大倍数
+    static final float SEL_SCALE = 1.2f;
+    // 还没有切换过位图
+    private static final int NO_BITMAP = Integer.MIN_VALUE;
+
+    private final Icons icons;
+
+    // 本次弹出的布局
+    private FanGeometry geometry;
+    private int count;
+    private int width;
+    private int height;
+    // 每个图标的高度（位图还没解码好时按这个尺寸画占位圆）
+    private int[] iconSizes;
+    // 每个图标动画的开始和结束时间
+    private float[] animStart;
+    private float[] animEnd;
+    private int eachAnimDuration;
+    // 每个图标使用的缓动曲线查找表
+    private FanEasing[] easingTables;
+    // 选中图标的放大倍数（降低质量时为1）
+    private float selScale = SEL_SCALE;
+    // 最多同时动画的图标个数（0表示不限制）
+    private int maxAnimatingItems;
+
+    // 缓存的图层在容器中的区域
+    private float layerLeft;
+    private float layerTop;
+    private float layerRight;
+    private float layerBottom;
+
+    // 这一帧当前使用的位图
+    private int boundBitmap;
+
+    /**
+     * @param icons 图标位图的尺寸
+     */
+    FanFrameDrawer(Icons icons) {
+        this.icons = icons;
+    }
+
+    /**
+     * 按总时长均匀错开每个图标的动画
+     *
+     * @param animStart         每个图标动画的开始时间
+     * @param animEnd           每个图标动画的结束时间
+     * @param count             图标个数
+     * @param totalAnimDuration 动画总时长
+     * @param eachAnimDuration  每个动画时长
+     */
+    static void calSchedule(float[] animStart, float[] animEnd, int count, int totalAnimDuration, int eachAnimDuration) {
+        // 每个动画的时间偏移
+        float offset = count > 1 ? (totalAnimDuration - eachAnimDuration) / (float) (count - 1) : 0;
+        for (int i = 0; i < count; i++) {
+            // 计算每个动画的开始和结束时间
+            animStart[i] = i * offset;
+            animEnd[i] = i * offset + eachAnimDuration;
+        }
+    }
+
+    /**
+     * 设置本次弹出的布局（数组只保存引用）
+     */
+    void setLayout(FanGeometry geometry, int count, int width, int height, int[] iconSizes,
+                   float[] animStart, float[] animEnd, int eachAnimDuration, FanEasing[] easingTables) {
+        this.geometry = geometry;
+        this.count = count;
+        this.width = width;
+        this.height = height;
+        this.iconSizes = iconSizes;
+        this.animStart = animStart;
+        this.animEnd = animEnd;
+        this.eachAnimDuration = eachAnimDuration;
+        this.easingTables = easingTables;
+    }
+
+    /**
+     * 设置缓存的图层在容器中的区域
+     */
+    void setLayerBounds(float left, float top, float right, float bottom) {
+        this.layerLeft = left;
+        this.layerTop = top;
+        this.layerRight = right;
+        this.layerBottom = bottom;
+    }
+
+    void setSelScale(float selScale) {
+        this.selScale = selScale;
+    }
+
+    /**
+     * 限制同时动画的图标个数，超出时较早开始的图标直接停在结束位置
+     *
+     * @param maxAnimatingItems 最多同时动画的图标个数（0表示不限制）
+     */
+    void setMaxAnimatingItems(int maxAnimatingItems) {
+        this.maxAnimatingItems = maxAnimatingItems;
+    }
+
+    /**
+     * 计算某个图标在某一时刻的动画进度
+     *
+     * @param index 扇形序号
+     * @param time  动画播放时间
+     * @return 动画进度（0~1）
+     */
+    float getItemProgress(int index, float time) {
+        if (time < animStart[index]) {
+            // 动画还没开始
+            return 0;
+        }
+        if (time >= animEnd[index]) {
+            // 当前动画结束
+            return 1;
+        }
+        if (maxAnimatingItems > 0 && index + maxAnimatingItems < count && time >= animStart[index + maxAnimatingItems]) {
+            // 之后已经有足够多的图标开始动画，这个图标提前结束
+            return 1;
+        }
+        // 计算当前动画的线性进度，再查表得到缓动后的进度
+        return easingTables[index].get((time - animStart[index]) / eachAnimDuration);
+    }
+
+    /**
+     * 绘制一帧
+     *
+     * @param renderer     绘制目标
+     * @param curTime      动画播放时间
+     * @param selIndex     放大显示的图标序号（没有时为-1）
+     * @param isLayerReady 是否直接绘制缓存的图层
+     * @param isAtlasReady 是否从图集绘制图标
+     */
+    void draw(FanRenderer renderer, float curTime, int selIndex, boolean isLayerReady, boolean isAtlasReady) {
+        boundBitmap = NO_BITMAP;
+        if (isLayerReady) {
+            // 直接绘制缓存的图层，再把选中的图标放大画在上面
+            bindBitmap(renderer, FanRenderer.BITMAP_LAYER);
+            renderer.drawBitmap(-1, layerLeft, layerTop, layerRight, layerBottom);
+            if (selIndex >= 0 && selIndex < count) {
+                bindBitmap(renderer, selIndex);
+                drawIcon(renderer, selIndex, 1, selScale);
+            }
+            return;
+        }
+
+        // 绘制扇形菜单
+        for (int i = 0; i < count; i++) {
+            if (curTime < animStart[i]) {
+                // 如果这个动画还没开始那么之后的也没开始
+                break;
+            }
+
+            float eachAnimProgress = getItemProgress(i, curTime);
+            // 放大选中的图标
+            float scale = i == selIndex ? selScale : 1;
+            if (isAtlasReady || icons.getIconWidth(i) > 0) {
+                // 所有图标都从同一张图集中绘制时整帧只切换一次位图
+                bindBitmap(renderer, isAtlasReady ? FanRenderer.BITMAP_ATLAS : i);
+                drawIcon(renderer, i, eachAnimProgress, scale);
+            } else {
+                // 位图还在后台解码，先画一个占位圆
+                float radius = iconSizes[i] / 2 * eachAnimProgress * scale;
+                renderer.drawPlaceholder(getAnimCenterX(i, eachAnimProgress), getAnimCenterY(i, eachAnimProgress), radius);
+            }
+        }
+    }
+
+    /**
+     * 逐渐放大的动画（以右下角为中心缩放，图标同时从右下角移出）
+     */
+    private void drawIcon(FanRenderer renderer, int index, float progress, float scale) {
+        float halfWidth = icons.getIconWidth(index) / 2f * scale * progress;
+        float halfHeight = icons.getIconHeight(index) / 2f * scale * progress;
+        float centerX = getAnimCenterX(index, progress);
+        float centerY = getAnimCenterY(index, progress);
+        renderer.drawBitmap(index, centerX - halfWidth, centerY - halfHeight, centerX + halfWidth, centerY + halfHeight);
+    }
+
+    private float getAnimCenterX(int index, float progress) {
+        return width - (width - geometry.getCenterX(index)) * progress;
+    }
+
+    private float getAnimCenterY(int index, float progress) {
+        return height - (height - geometry.getCenterY(index)) * progress;
+    }
+
+    private void bindBitmap(FanRenderer renderer, int bitmap) {
+        if (boundBitmap != bitmap) {
+            boundBitmap = bitmap;
+            renderer.bindBitmap(bitmap);
+        }
+    }
+
+    /**
+     * 图标位图的尺寸
+     */
+    interface Icons {
+        /**
+         * @param index 图标序号
+         * @return 位图宽度，还没解码好时返回0
+         */
+        int getIconWidth(int index);
+
+        /**
+         * @param index 图标序号
+         * @return 位图高度，还没解码好时返回0
+         */
+        int getIconHeight(int index);
+    }
+}
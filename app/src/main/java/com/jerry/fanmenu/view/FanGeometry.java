@@ -0,0 +1,436 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 扇形菜单的几何计算与命中检测（纯Java实现，不依赖Android）
+ * <p>
+ * 扇形以容器右下角为圆心，角度从竖直向上方向开始、向左逆时针增加。
+ * 一圈放不下时会把图标分到多个同心圆环上：先放在手指前方的第0环，再依次向外、向内扩展，
+ * 每环的可见角度范围按容器边界单独计算。
+ * 命中检测先由距离直接算出所在的环，再用近似反正切查(环, 角度桶)表得到候选扇形，
+ * 最后用叉积修正桶内的边界，耗时与图标个数无关
+ */
+final class FanGeometry {
+    // 菜单显示位置与手指点击位置的距离
+    static final int FINGER_DISTANCE = 200;
+    // 扇形最小半径
+    static final int PAN_MIN_RADIUS = 500;
+    // 扇形菜单总共占用的角度
+    static final float TOTAL_ANGLE = 90f;
+    // 最多的圆环个数
+    static final int MAX_RING_COUNT = 16;
+    // 每个圆环的角度桶个数
+    private static final int BUCKET_COUNT = 256;
+    private static final float BUCKET_ANGLE = TOTAL_ANGLE / BUCKET_COUNT;
+
+    private int containerWidth;
+    private int containerHeight;
+    // 扇形个数
+    private int count;
+    // 第0环的扇形半径
+    private float fanRadius;
+    // 第0环每个扇形所占的角度
+    private float fanAngle;
+
+    // 相邻圆环的间距（最大图标尺寸）
+    private float ringGap;
+    private int ringCount;
+    // 最内环的半径
+    private float minRingRadius;
+    // 每个圆环的半径、可见角度范围、第一个扇形的序号和扇形个数
+    private final float[] ringRadius = new float[MAX_RING_COUNT];
+    private final float[] ringStartAngle = new float[MAX_RING_COUNT];
+    private final float[] ringEndAngle = new float[MAX_RING_COUNT];
+    private final int[] ringFirstItem = new int[MAX_RING_COUNT];
+    private final int[] ringItemCount = new int[MAX_RING_COUNT];
+    // 半径为fanRadius + step * ringGap的圆环序号，下标为step + MAX_RING_COUNT，没有圆环为-1
+    private final int[] ringByStep = new int[MAX_RING_COUNT * 2 + 1];
+    // (环, 角度桶)对应的第一个扇形序号
+    private final int[] bucketTable = new int[MAX_RING_COUNT * BUCKET_COUNT];
+
+    // 每个扇形起止边界的正弦和余弦
+    private float[] startSin = new float[0];
+    private float[] startCos = new float[0];
+    private float[] endSin = new float[0];
+    private float[] endCos = new float[0];
+    // 每个扇形可选中范围的内外半径的平方
+    private float[] innerRadiusSq = new float[0];
+    private float[] outerRadiusSq = new float[0];
+    // 每个图标中心在容器中的坐标
+    private float[] centerX = new float[0];
+    private float[] centerY = new float[0];
+
+    /**
+     * 计算扇形布局
+     *
+     * @param containerWidth  容器的宽度
+     * @param containerHeight 容器的高度
+     * @param touchX          触摸点横坐标
+     * @param touchY          触摸点纵坐标
+     * @param iconSizes       每个图标的尺寸
+     * @param count           扇形个数
+     */
+    void layout(int containerWidth, int containerHeight, float touchX, float touchY, int[] iconSizes, int count) {
+        if (count <= 0 || iconSizes.length < count) {
+            throw new IllegalArgumentException("Invalid count " + count + " for " + iconSizes.length + " icons");
+        }
+        this.containerWidth = containerWidth;
+        this.containerHeight = containerHeight;
+        this.count = count;
+        ensureCapacity(count);
+
+        int maxIconSize = 0;
+        for (int i = 0; i < count; i++) {
+            maxIconSize = Math.max(maxIconSize, iconSizes[i]);
+        }
+        this.ringGap = Math.max(1, maxIconSize);
+
+        // 计算第0环的半径
+        this.fanRadius = calFanRadius(containerWidth, containerHeight, touchX, touchY, iconSizes[0] / 2);
+        planRings(maxIconSize / 2);
+
+        this.minRingRadius = fanRadius;
+        for (int ring = 0; ring < ringCount; ring++) {
+            layoutRing(ring, iconSizes);
+            minRingRadius = Math.min(minRingRadius, ringRadius[ring]);
+        }
+        this.fanAngle = (ringEndAngle[0] - ringStartAngle[0]) / ringItemCount[0];
+    }
+
+    /**
+     * 依次尝试第0环、外环、内环，把图标按顺序分配到各环上
+     *
+     * @param bitmapRadius 最大图标的半径
+     */
+    private void planRings(int bitmapRadius) {
+        for (int i = 0; i < ringByStep.length; i++) {
+            ringByStep[i] = -1;
+        }
+        ringCount = 0;
+        int remain = count;
+
+        // 第0环至少放一个图标
+        remain -= addRing(0, bitmapRadius, remain, true);
+        for (int step = 1; remain > 0 && ringCount < MAX_RING_COUNT; step++) {
+            int placed = addRing(step, bitmapRadius, remain, false);
+            if (placed == 0) {
+                break;
+            }
+            remain -= placed;
+        }
+        // 内环不能离圆心太近，否则图标会挤在一起
+        for (int step = -1; remain > 0 && ringCount < MAX_RING_COUNT && fanRadius + step * ringGap >= ringGap * 1.5f; step--) {
+            int placed = addRing(step, bitmapRadius, remain, false);
+            if (placed == 0) {
+                break;
+            }
+            remain -= placed;
+        }
+        // 所有圆环都放满了，剩下的只能挤在最后一环上
+        ringItemCount[ringCount - 1] += remain;
+    }
+
+    /**
+     * 添加一个圆环
+     *
+     * @param step         圆环相对第0环的间距个数
+     * @param bitmapRadius 最大图标的半径
+     * @param remain       还没分配的图标个数
+     * @param isFirst      是否是第0环
+     * @return 放在这个环上的图标个数
+     */
+    private int addRing(int step, int bitmapRadius, int remain, boolean isFirst) {
+        float radius = fanRadius + step * ringGap;
+        float startAngle = calRingStartAngle(radius, containerHeight, bitmapRadius);
+        float endAngle = calRingEndAngle(radius, containerWidth, bitmapRadius);
+        // 按弧长计算这一环能放下的图标个数
+        int capacity = endAngle > startAngle ? (int) (radius * Math.toRadians(endAngle - startAngle) / ringGap) : 0;
+        if (isFirst) {
+            capacity = Math.max(1, capacity);
+        }
+        if (capacity <= 0) {
+            return 0;
+        }
+
+        int ring = ringCount++;
+        ringRadius[ring] = radius;
+        ringStartAngle[ring] = startAngle;
+        ringEndAngle[ring] = Math.max(startAngle, endAngle);
+        ringFirstItem[ring] = count - remain;
+        ringItemCount[ring] = Math.min(capacity, remain);
+        ringByStep[step + MAX_RING_COUNT] = ring;
+        return ringItemCount[ring];
+    }
+
+    /**
+     * 计算一个圆环上每个扇形的边界、半径范围和图标中心，并填好这个环的角度桶
+     */
+    private void layoutRing(int ring, int[] iconSizes) {
+        float radius = ringRadius[ring];
+        float startAngle = ringStartAngle[ring];
+        int first = ringFirstItem[ring];
+        int itemCount = ringItemCount[ring];
+        float slotAngle = (ringEndAngle[ring] - startAngle) / itemCount;
+
+        for (int slot = 0; slot < itemCount; slot++) {
+            int i = first + slot;
+            double start = Math.toRadians(startAngle + slotAngle * slot);
+            double end = Math.toRadians(startAngle + slotAngle * (slot + 1));
+            startSin[i] = (float) Math.sin(start);
+            startCos[i] = (float) Math.cos(start);
+            endSin[i] = (float) Math.sin(end);
+            endCos[i] = (float) Math.cos(end);
+
+            float bitmapRadius = iconSizes[i] / 2;
+            float inner = Math.max(0, radius - bitmapRadius);
+            float outer = radius + bitmapRadius;
+            innerRadiusSq[i] = inner * inner;
+            outerRadiusSq[i] = outer * outer;
+
+            double center = Math.toRadians(startAngle + slotAngle * (slot + 0.5f));
+            centerX[i] = containerWidth - (float) (radius * Math.sin(center));
+            centerY[i] = containerHeight - (float) (radius * Math.cos(center));
+        }
+
+        // 每个角度桶记下桶起点所在的扇形
+        int offset = ring * BUCKET_COUNT;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            int slot = slotAngle > 0 ? (int) ((bucket * BUCKET_ANGLE - startAngle) / slotAngle) : 0;
+            bucketTable[offset + bucket] = first + Math.max(0, Math.min(itemCount - 1, slot));
+        }
+    }
+
+    /**
+     * 清空布局，之后的命中检测都返回-1
+     */
+    void reset() {
+        this.count = 0;
+        this.ringCount = 0;
+        this.minRingRadius = 0;
+        this.fanRadius = 0;
+        this.fanAngle = 0;
+    }
+
+    private void ensureCapacity(int count) {
+        if (centerX.length < count) {
+            startSin = new float[count];
+            startCos = new float[count];
+            endSin = new float[count];
+            endCos = new float[count];
+            innerRadiusSq = new float[count];
+            outerRadiusSq = new float[count];
+            centerX = new float[count];
+            centerY = new float[count];
+        }
+    }
+
+    /**
+     * 计算扇形半径
+     *
+     * @param containerWidth  容器的宽度
+     * @param containerHeight 容器的高度
+     * @param touchX          触摸点横坐标
+     * @param touchY          触摸点纵坐标
+     * @param bitmapRadius    位图的半径
+     * @return 扇形半径
+     */
+    static float calFanRadius(int containerWidth, int containerHeight, float touchX, float touchY, int bitmapRadius) {
+        float dx = containerWidth - touchX;
+        float dy = containerHeight - touchY;
+        // 加上200是为了让菜单能出现在手指前面，而不会被盖掉
+        float fanRadius = (float) Math.sqrt(dx * dx + dy * dy) + FINGER_DISTANCE;
+
+        // 如果最大半径超过容器高度，那么把半径设成不会超过容器高度
+        if (fanRadius + bitmapRadius > containerHeight) {
+            fanRadius = containerHeight - bitmapRadius;
+        }
+
+        // 设定最小半径为500
+        return Math.max(PAN_MIN_RADIUS, fanRadius);
+    }
+
+    /**
+     * 计算圆环可见范围的起始角度
+     *
+     * @param radius          圆环半径
+     * @param containerHeight 容器的高度
+     * @param bitmapRadius    位图的半径
+     * @return 起始角度
+     */
+    static float calRingStartAngle(float radius, int containerHeight, int bitmapRadius) {
+        float maxRadius = radius + bitmapRadius;
+        // 如果最大半径超过容器高度，那么靠近竖直方向的部分会显示到上面去
+        if (maxRadius <= containerHeight) {
+            return 0;
+        }
+        return (float) Math.toDegrees(Math.acos(containerHeight / maxRadius));
+    }
+
+    /**
+     * 计算圆环可见范围的结束角度
+     *
+     * @param radius         圆环半径
+     * @param containerWidth 容器的宽度
+     * @param bitmapRadius   位图的半径
+     * @return 结束角度
+     */
+    static float calRingEndAngle(float radius, int containerWidth, int bitmapRadius) {
+        // 扇形菜单展示的最大半径
+        float maxRadius = radius + bitmapRadius;
+
+        // 如果最大半径超过容器宽度，那么把扇形角度变小防止图标显示到外面去
+        if (maxRadius <= containerWidth) {
+            return TOTAL_ANGLE;
+        }
+
+        float forbiddenAngle = (float) Math.toDegrees(Math.acos(containerWidth / maxRadius));
+        return TOTAL_ANGLE - forbiddenAngle;
+    }
+
+    /**
+     * 命中检测
+     *
+     * @param x 触摸点横坐标（容器坐标系）
+     * @param y 触摸点纵坐标（容器坐标系）
+     * @return 选中的扇形序号，没有选中返回-1
+     */
+    int hitTest(float x, float y) {
+        if (count <= 0) {
+            return -1;
+        }
+
+        // 转换为以右下角为原点、向左向上为正的坐标
+        float dx = containerWidth - x;
+        float dy = containerHeight - y;
+        if (dx < 0 || dy < 0) {
+            return -1;
+        }
+
+        // 圆环半径等间距排列，由距离直接算出最近的圆环
+        float rangeSq = dx * dx + dy * dy;
+        int step = Math.round(((float) Math.sqrt(rangeSq) - fanRadius) / ringGap);
+        if (step < -MAX_RING_COUNT || step > MAX_RING_COUNT) {
+            return -1;
+        }
+        int ring = ringByStep[step + MAX_RING_COUNT];
+        if (ring < 0) {
+            return -1;
+        }
+
+        // 用近似角度查表得到候选扇形，近似误差最多让候选偏离一两个扇形，再用叉积精确修正
+        int bucket = (int) (fastAngle(dx, dy) / BUCKET_ANGLE);
+        int index = bucketTable[ring * BUCKET_COUNT + Math.max(0, Math.min(BUCKET_COUNT - 1, bucket))];
+        int first = ringFirstItem[ring];
+        int last = first + ringItemCount[ring] - 1;
+        while (index < last && isBeyondStart(dx, dy, index + 1)) {
+            index++;
+        }
+        while (index > first && !isBeyondStart(dx, dy, index)) {
+            index--;
+        }
+        // 超出这一环可见范围的不算选中
+        if (!isBeyondStart(dx, dy, index) || isBeyondEnd(dx, dy, index)) {
+            return -1;
+        }
+
+        // 根据距离来确定是否选中对应序号的菜单
+        if (rangeSq < innerRadiusSq[index] || rangeSq > outerRadiusSq[index]) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * 触摸角度是否不小于第index个扇形的起始边界（用叉积比较，避免反三角函数）
+     */
+    private boolean isBeyondStart(float dx, float dy, int index) {
+        return dx * startCos[index] - dy * startSin[index] >= 0;
+    }
+
+    /**
+     * 触摸角度是否不小于第index个扇形的结束边界
+     */
+    private boolean isBeyondEnd(float dx, float dy, int index) {
+        return dx * endCos[index] - dy * endSin[index] >= 0;
+    }
+
+    /**
+     * 近似计算触摸角度（度），最大误差约0.22度
+     *
+     * @param dx 向左的距离（非负）
+     * @param dy 向上的距离（非负）
+     * @return 与竖直向上方向的夹角（0~90）
+     */
+    static float fastAngle(float dx, float dy) {
+        if (dx <= dy) {
+            return dy == 0 ? 0 : fastAtan(dx / dy);
+        }
+        return TOTAL_ANGLE - fastAtan(dy / dx);
+    }
+
+    /**
+     * 近似反正切（度），输入范围0~1
+     */
+    private static float fastAtan(float z) {
+        return (float) Math.toDegrees(z * (Math.PI / 4 + 0.273 * (1 - z)));
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    float getFanRadius() {
+        return fanRadius;
+    }
+
+    float getFanAngle() {
+        return fanAngle;
+    }
+
+    int getRingCount() {
+        return ringCount;
+    }
+
+    float getMinRingRadius() {
+        return minRingRadius;
+    }
+
+    /**
+     * @param ring 圆环序号
+     * @return 圆环半径
+     */
+    float getRingRadius(int ring) {
+        return ringRadius[ring];
+    }
+
+    /**
+     * @param ring 圆环序号
+     * @return 圆环可见范围的起始角度
+     */
+    float getRingStartAngle(int ring) {
+        return ringStartAngle[ring];
+    }
+
+    /**
+     * @param ring 圆环序号
+     * @return 圆环可见范围的结束角度
+     */
+    float getRingEndAngle(int ring) {
+        return ringEndAngle[ring];
+    }
+
+    /**
+     * @param index 扇形序号
+     * @return 图标完全展开后中心的横坐标（容器坐标系）
+     */
+    float getCenterX(int index) {
+        return centerX[index];
+    }
+
+    /**
+     * @param index 扇形序号
+     * @return 图标完全展开后中心的纵坐标（容器坐标系）
+     */
+    float getCenterY(int index) {
+        return centerY[index];
+    }
+}
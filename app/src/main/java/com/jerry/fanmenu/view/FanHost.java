@@ -0,0 +1,39 @@
+package com.jerry.fanmenu.view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+/**
+ * 扇形视图的显示方式
+ * <p>
+ * 扇形视图总是和容器一样大，触摸事件都由容器转发，这里只负责把扇形视图显示到容器上
+ */
+interface FanHost {
+    /**
+     * @return 扇形视图依附的容器
+     */
+    View getContainer();
+
+    /**
+     * 显示扇形视图（容器大小没变时不重新布局）
+     *
+     * @param fanView 扇形视图
+     * @param width   容器宽度
+     * @param height  容器高度
+     */
+    void show(@NonNull View fanView, int width, int height);
+
+    /**
+     * 隐藏扇形视图，之后还可以再次显示
+     *
+     * @param fanView 扇形视图
+     */
+    void hide(@NonNull View fanView);
+
+    /**
+     * 彻底移除扇形视图，释放占用的窗口或图层
+     *
+     * @param fanView 扇形视图
+     */
+    void release(@NonNull View fanView);
+}
@@ -0,0 +1,112 @@
+package com.jerry.fanmenu.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import java.util.Arrays;
+
+/**
+ * 把所有菜单图标拼到一张位图上的图集
+ * <p>
+ * 开启硬件加速时每张位图都是一个纹理，拼成一张后只需要上传一次纹理，各个图标的绘制也能合并成一批。
+ * 记录生成时的图标ID和尺寸，参数相同时跨多次弹出复用
+ */
+final class FanIconAtlas {
+    // 图集的最大边长（超过后大部分GPU无法作为一个纹理使用）
+    private static final int MAX_ATLAS_SIZE = 2048;
+    // 图标之间的间距，避免缩放时采样到相邻图标
+    private static final int PADDING = 2;
+
+    private Bitmap bitmap;
+    private final Canvas canvas = new Canvas();
+    // 每个图标在图集中的区域
+    private Rect[] srcRects = new Rect[0];
+
+    private int[] iconIds;
+    private int iconSize;
+
+    boolean matches(int[] iconIds, int iconSize) {
+        return bitmap != null && this.iconSize == iconSize && Arrays.equals(this.iconIds, iconIds);
+    }
+
+    /**
+     * 按行依次排列图标，生成图集
+     *
+     * @param bitmaps  图标位图（不能有空）
+     * @param count    图标个数
+     * @param iconIds  图标ID
+     * @param iconSize 图标尺寸
+     * @return 是否生成成功（图标太多放不下时返回false）
+     */
+    boolean build(Bitmap[] bitmaps, int count, int[] iconIds, int iconSize) {
+        this.iconIds = null;
+        if (srcRects.length < count) {
+            srcRects = new Rect[count];
+            for (int i = 0; i < count; i++) {
+                srcRects[i] = new Rect();
+            }
+        }
+
+        // 宽度取接近正方形的边长，但至少能放下最宽的图标
+        long totalArea = 0;
+        int maxWidth = 0;
+        for (int i = 0; i < count; i++) {
+            int width = bitmaps[i].getWidth() + PADDING;
+            totalArea += (long) width * (bitmaps[i].getHeight() + PADDING);
+            maxWidth = Math.max(maxWidth, width);
+        }
+        int atlasWidth = Math.max(maxWidth, (int) Math.ceil(Math.sqrt(totalArea)));
+        if (atlasWidth > MAX_ATLAS_SIZE) {
+            return false;
+        }
+
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (int i = 0; i < count; i++) {
+            int width = bitmaps[i].getWidth();
+            int height = bitmaps[i].getHeight();
+            if (x + width > atlasWidth) {
+                // 换行
+                x = 0;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            srcRects[i].set(x, y, x + width, y + height);
+            x += width + PADDING;
+            rowHeight = Math.max(rowHeight, height);
+        }
+        int atlasHeight = y + rowHeight;
+        if (atlasHeight > MAX_ATLAS_SIZE || atlasHeight <= 0) {
+            return false;
+        }
+
+        if (bitmap == null || bitmap.getWidth() != atlasWidth || bitmap.getHeight() != atlasHeight) {
+            bitmap = Bitmap.createBitmap(atlasWidth, atlasHeight, Bitmap.Config.ARGB_8888);
+        } else {
+            bitmap.eraseColor(0);
+        }
+        canvas.setBitmap(bitmap);
+        for (int i = 0; i < count; i++) {
+            canvas.drawBitmap(bitmaps[i], srcRects[i].left, srcRects[i].top, null);
+        }
+        canvas.setBitmap(null);
+
+        this.iconIds = iconIds.clone();
+        this.iconSize = iconSize;
+        return true;
+    }
+
+    Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * @param index 图标序号
+     * @return 图标在图集中的区域
+     */
+    Rect getSrcRect(int index) {
+        return srcRects[index];
+    }
+}
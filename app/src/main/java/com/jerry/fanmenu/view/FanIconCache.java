@@ -0,0 +1,244 @@
+package com.jerry.fanmenu.view;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+import android.util.SparseIntArray;
+
+/**
+ * 扇形菜单图标缓存（进程内共享，按字节数限制大小的LRU）
+ * <p>
+ * 以资源ID和目标尺寸作为键，重复弹出菜单时直接复用已解码的位图
+ */
+public final class FanIconCache {
+    // 缓存最多占用最大可用内存的1/16
+    private static final int MEMORY_FRACTION = 16;
+    // 复用位图池的大小为缓存的1/4
+    private static final int POOL_FRACTION = 4;
+
+    private static FanIconCache _Instance;
+
+    private final LruCache<Long, Bitmap> cache;
+    // 图标原始高度（资源ID -> 高度）
+    private final SparseIntArray iconHeights = new SparseIntArray();
+    // 用完后显式放回的位图放到这里，供之后解码时复用（被LRU移出的位图可能还在屏幕上，不能放进来）
+    private final FanBitmapPool bitmapPool;
+
+    private FanIconCache(int maxBytes) {
+        bitmapPool = new FanBitmapPool(maxBytes / POOL_FRACTION);
+        cache = new LruCache<Long, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * 获取进程内共享的图标缓存
+     *
+     * @return 图标缓存
+     */
+    public static synchronized FanIconCache getInstance() {
+        if (_Instance == null) {
+            _Instance = new FanIconCache((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / MEMORY_FRACTION));
+        }
+        return _Instance;
+    }
+
+    /**
+     * 只从缓存中获取图标位图，不会解码
+     *
+     * @param resId      图标ID
+     * @param targetSize 目标尺寸（0表示原始尺寸）
+     * @return 图标位图，没有缓存时返回null
+     */
+    Bitmap peekIcon(@DrawableRes int resId, int targetSize) {
+        return cache.get(toKey(resId, targetSize));
+    }
+
+    /**
+     * 解码图标并放入缓存（可在后台线程调用）
+     *
+     * @param res        资源
+     * @param resId      图标ID
+     * @param targetSize 目标尺寸（0表示原始尺寸）
+     * @return 图标位图
+     */
+    Bitmap decodeIcon(@NonNull Resources res, @DrawableRes int resId, int targetSize) {
+        // 将资源ID转为位图
+        Bitmap bitmap = targetSize > 0 ? decodeSampled(res, resId, targetSize) : BitmapFactory.decodeResource(res, resId);
+        if (bitmap != null) {
+            cache.put(toKey(resId, targetSize), bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 按目标尺寸解码但不放入缓存，用完后需要调用{@link #recycleIcon(Bitmap)}放回位图池（可在后台线程调用）
+     *
+     * @param res        资源
+     * @param resId      图标ID
+     * @param targetSize 目标尺寸（必须大于0，尺寸一致时位图才能互相复用）
+     * @return 图标位图
+     */
+    Bitmap decodeRecyclableIcon(@NonNull Resources res, @DrawableRes int resId, int targetSize) {
+        return decodeSampled(res, resId, targetSize);
+    }
+
+    /**
+     * 把{@link #decodeRecyclableIcon(Resources, int, int)}解码的位图放回位图池
+     *
+     * @param bitmap 不再使用的位图
+     */
+    void recycleIcon(@NonNull Bitmap bitmap) {
+        bitmapPool.put(bitmap);
+    }
+
+    /**
+     * 按目标尺寸解码：先用inSampleSize按2的幂缩小，再用密度缩放到目标尺寸，并尽量复用位图池中的位图
+     *
+     * @param res        资源
+     * @param resId      图标ID
+     * @param targetSize 目标尺寸（图标较长边的像素数）
+     * @return 图标位图
+     */
+    private Bitmap decodeSampled(@NonNull Resources res, @DrawableRes int resId, int targetSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        // 读取未经密度缩放的原始尺寸
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(res, resId, options);
+        int srcSize = Math.max(options.outWidth, options.outHeight);
+        if (srcSize <= 0) {
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (srcSize / (sampleSize * 2) >= targetSize) {
+            sampleSize *= 2;
+        }
+        int sampledSize = srcSize / sampleSize;
+        float scale = targetSize * 1f / sampledSize;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inScaled = sampledSize != targetSize;
+        options.inDensity = sampledSize;
+        options.inTargetDensity = targetSize;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        // 可变位图才能放回位图池
+        options.inMutable = true;
+
+        int width = (int) (options.outWidth / sampleSize * scale + 0.5f);
+        int height = (int) (options.outHeight / sampleSize * scale + 0.5f);
+        options.inBitmap = bitmapPool.get(width, height, options.inPreferredConfig);
+        try {
+            return BitmapFactory.decodeResource(res, resId, options);
+        } catch (IllegalArgumentException e) {
+            // 复用的位图不满足要求，重新分配
+            options.inBitmap = null;
+            return BitmapFactory.decodeResource(res, resId, options);
+        }
+    }
+
+    /**
+     * 获取图标解码后的高度（只解析文件头，不分配位图）
+     *
+     * @param res   资源
+     * @param resId 图标ID
+     * @return 图标高度
+     */
+    int getIconHeight(@NonNull Resources res, @DrawableRes int resId) {
+        synchronized (iconHeights) {
+            int height = iconHeights.get(resId, -1);
+            if (height >= 0) {
+                return height;
+            }
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(res, resId, options);
+        int height = Math.max(options.outHeight, 0);
+        synchronized (iconHeights) {
+            iconHeights.put(resId, height);
+        }
+        return height;
+    }
+
+    private static Long toKey(int resId, int targetSize) {
+        return ((long) resId << 32) | (targetSize & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return 缓存命中次数
+     */
+    public int getHitCount() {
+        return cache.hitCount();
+    }
+
+    /**
+     * @return 缓存未命中次数
+     */
+    public int getMissCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * @return 因超出大小限制而被移除的次数
+     */
+    public int getEvictionCount() {
+        return cache.evictionCount();
+    }
+
+    /**
+     * @return 当前缓存占用的字节数
+     */
+    public int getSizeInBytes() {
+        return cache.size();
+    }
+
+    /**
+     * @return 复用位图池当前占用的字节数
+     */
+    public int getPoolSizeInBytes() {
+        return bitmapPool.getSizeInBytes();
+    }
+
+    /**
+     * @return 缓存允许占用的最大字节数
+     */
+    public int getMaxSizeInBytes() {
+        return cache.maxSize();
+    }
+
+    /**
+     * 缩小缓存并清空位图池（内存紧张时调用）
+     *
+     * @param maxBytes 缓存最多保留的字节数，0表示全部移除
+     */
+    void trim(int maxBytes) {
+        // 和位图池的存取用同一把锁，避免清空时有位图正在放回
+        synchronized (bitmapPool) {
+            cache.trimToSize(maxBytes);
+            bitmapPool.clear();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (bitmapPool) {
+            cache.evictAll();
+            bitmapPool.clear();
+        }
+        synchronized (iconHeights) {
+            iconHeights.clear();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.jerry.fanmenu.view;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 扇形菜单图标的后台解码器
+ * <p>
+ * 解码在后台线程完成并放入{@link FanIconCache}，结果回调到主线程
+ */
+final class FanIconLoader {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "FanIconLoader");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private FanIconLoader() {
+    }
+
+    /**
+     * 图标解码完成的回调（在主线程调用）
+     */
+    interface Callback {
+        /**
+         * @param resId       图标ID
+         * @param bitmap      解码出的位图，失败时为null
+         * @param decodeNanos 解码耗时（纳秒），排队期间已被其他请求解码时为0
+         */
+        void onIconLoaded(@DrawableRes int resId, Bitmap bitmap, long decodeNanos);
+    }
+
+    /**
+     * 在后台解码图标
+     *
+     * @param res        资源
+     * @param resId      图标ID
+     * @param targetSize 目标尺寸（0表示原始尺寸）
+     * @param callback   解码完成的回调
+     */
+    static void load(@NonNull final Resources res, @DrawableRes final int resId, final int targetSize, @NonNull final Callback callback) {
+        load(res, resId, targetSize, true, callback);
+    }
+
+    /**
+     * 在后台解码图标但不放入缓存，结果用完后需要放回位图池
+     *
+     * @param res        资源
+     * @param resId      图标ID
+     * @param targetSize 目标尺寸（必须大于0）
+     * @param callback   解码完成的回调
+     * @see FanIconCache#decodeRecyclableIcon(Resources, int, int)
+     */
+    static void loadRecyclable(@NonNull final Resources res, @DrawableRes final int resId, final int targetSize, @NonNull final Callback callback) {
+        load(res, resId, targetSize, false, callback);
+    }
+
+    private static void load(@NonNull final Resources res, @DrawableRes final int resId, final int targetSize, final boolean isCached, @NonNull final Callback callback) {
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                FanIconCache iconCache = FanIconCache.getInstance();
+                // 排队期间可能已被其他请求解码过
+                Bitmap bitmap = isCached ? iconCache.peekIcon(resId, targetSize) : null;
+                long decodeNanos = 0;
+                if (bitmap == null) {
+                    long startNanos = System.nanoTime();
+                    bitmap = isCached ? iconCache.decodeIcon(res, resId, targetSize) : iconCache.decodeRecyclableIcon(res, resId, targetSize);
+                    decodeNanos = System.nanoTime() - startNanos;
+                }
+
+                final Bitmap result = bitmap;
+                final long resultDecodeNanos = decodeNanos;
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onIconLoaded(resId, result, resultDecodeNanos);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 在后台预先解码图标，不需要回调
+     *
+     * @param res        资源
+     * @param resIds     图标ID
+     * @param targetSize 目标尺寸（0表示原始尺寸）
+     */
+    static void prewarm(@NonNull final Resources res, @NonNull final int[] resIds, final int targetSize) {
+        final int[] ids = resIds.clone();
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                FanIconCache iconCache = FanIconCache.getInstance();
+                for (int resId : ids) {
+                    // 顺便记录图标尺寸，首次弹出时不必再解析文件头
+                    iconCache.getIconHeight(res, resId);
+                    if (iconCache.peekIcon(resId, targetSize) == null) {
+                        iconCache.decodeIcon(res, resId, targetSize);
+                    }
+                }
+            }
+        });
+    }
+}
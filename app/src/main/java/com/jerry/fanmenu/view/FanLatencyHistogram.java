@@ -0,0 +1,120 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 记录耗时分布的直方图，用于计算百分位数
+ * <p>
+ * 按2的幂分段，每段再等分为8个桶，误差不超过12.5%。占用固定内存，记录时不分配对象（非线程安全）
+ */
+public final class FanLatencyHistogram {
+    // 每个2的幂分段再细分的桶数（2^3）
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * 记录一个值
+     *
+     * @param value 值（负数按0记录）
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[getBucketIndex(value)]++;
+        totalCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // 最高位所在的分段，再取最高位之后的3位作为段内的桶
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> (magnitude - 1)) & (SUB_BUCKET_COUNT - 1);
+        return magnitude * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @return 桶能表示的最大值
+     */
+    private static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKET_COUNT;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + subBucket) << (magnitude - 1);
+        return lowerBound + (1L << (magnitude - 1)) - 1;
+    }
+
+    /**
+     * 获取百分位数
+     *
+     * @param percentile 百分位（0~100）
+     * @return 对应的值（所在桶的上界，不会超过记录到的最大值），没有记录时返回0
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * totalCount);
+        target = Math.max(1, target);
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts[i];
+            if (count >= target) {
+                return Math.min(getBucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum * 1.0 / totalCount;
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = 0;
+        }
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FanLatencyHistogram{" +
+                "count=" + totalCount +
+                ", p50=" + getPercentile(50) +
+                ", p90=" + getPercentile(90) +
+                ", p99=" + getPercentile(99) +
+                ", max=" + max +
+                '}';
+    }
+}
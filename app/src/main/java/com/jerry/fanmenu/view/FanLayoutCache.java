@@ -0,0 +1,178 @@
+package com.jerry.fanmenu.view;
+
+import android.graphics.Matrix;
+import android.graphics.RectF;
+import android.util.LruCache;
+
+import java.util.Arrays;
+
+/**
+ * 扇形布局缓存（进程内共享的LRU）
+ * <p>
+ * 以容器尺寸、对齐后的触摸点、图标和动画时长作为键，缓存算好的扇形几何、每个图标的变换矩阵和动画时间表，
+ * 在相同位置重复弹出菜单时跳过所有布局计算，也不再分配对象
+ */
+public final class FanLayoutCache {
+    // 最多缓存的布局个数
+    private static final int MAX_ENTRIES = 8;
+
+    private static FanLayoutCache _Instance;
+
+    private final LruCache<Key, Layout> cache = new LruCache<>(MAX_ENTRIES);
+    // 查询时复用的键，命中时不分配对象
+    private final Key probeKey = new Key();
+
+    private FanLayoutCache() {
+    }
+
+    /**
+     * 获取进程内共享的布局缓存
+     *
+     * @return 布局缓存
+     */
+    public static synchronized FanLayoutCache getInstance() {
+        if (_Instance == null) {
+            _Instance = new FanLayoutCache();
+        }
+        return _Instance;
+    }
+
+    /**
+     * 查找布局
+     *
+     * @return 缓存的布局，没有时返回null
+     */
+    synchronized Layout get(int containerWidth, int containerHeight, float touchX, float touchY, int[] iconIds, int[] iconSizes, int count, int totalAnimDuration, int eachAnimDuration) {
+        probeKey.set(containerWidth, containerHeight, touchX, touchY, iconIds, iconSizes, count, totalAnimDuration, eachAnimDuration);
+        return cache.get(probeKey);
+    }
+
+    /**
+     * 放入布局（键和最近一次{@link #get}的参数相同）
+     *
+     * @param layout 算好的布局
+     */
+    synchronized void put(Layout layout) {
+        cache.put(probeKey.copy(), layout);
+    }
+
+    /**
+     * @return 缓存命中次数
+     */
+    public int getHitCount() {
+        return cache.hitCount();
+    }
+
+    /**
+     * @return 缓存未命中次数
+     */
+    public int getMissCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * @return 缓存命中率（0~1），还没有查询时返回0
+     */
+    public float getHitRate() {
+        int hitCount = cache.hitCount();
+        int total = hitCount + cache.missCount();
+        return total == 0 ? 0 : hitCount * 1f / total;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.evictAll();
+    }
+
+    /**
+     * 一次弹出所需的全部布局结果
+     */
+    static final class Layout {
+        final FanGeometry geometry = new FanGeometry();
+        // 每个图标完全展开后的变换矩阵（绘制缓存图层时使用）
+        Matrix[] itemMatrices = new Matrix[0];
+        // 每个图标完全展开并放大后在屏幕上的区域
+        RectF[] itemBounds = new RectF[0];
+        // 变换矩阵是否已经按位图算好（位图还在后台解码时只有区域）
+        boolean[] hasMatrix = new boolean[0];
+        // 每个图标动画的开始和结束时间
+        float[] animStart = new float[0];
+        float[] animEnd = new float[0];
+
+        void ensureCapacity(int count) {
+            if (itemMatrices.length < count) {
+                itemMatrices = new Matrix[count];
+                itemBounds = new RectF[count];
+                for (int i = 0; i < count; i++) {
+                    itemMatrices[i] = new Matrix();
+                    itemBounds[i] = new RectF();
+                }
+                hasMatrix = new boolean[count];
+                animStart = new float[count];
+                animEnd = new float[count];
+            }
+        }
+    }
+
+    private static final class Key {
+        private int containerWidth;
+        private int containerHeight;
+        private float touchX;
+        private float touchY;
+        // 图标ID决定了位图的宽高，变换矩阵和它有关
+        private int[] iconIds;
+        private int[] iconSizes;
+        private int count;
+        private int totalAnimDuration;
+        private int eachAnimDuration;
+
+        void set(int containerWidth, int containerHeight, float touchX, float touchY, int[] iconIds, int[] iconSizes, int count, int totalAnimDuration, int eachAnimDuration) {
+            this.containerWidth = containerWidth;
+            this.containerHeight = containerHeight;
+            this.touchX = touchX;
+            this.touchY = touchY;
+            this.iconIds = iconIds;
+            this.iconSizes = iconSizes;
+            this.count = count;
+            this.totalAnimDuration = totalAnimDuration;
+            this.eachAnimDuration = eachAnimDuration;
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.set(containerWidth, containerHeight, touchX, touchY, iconIds.clone(), iconSizes.clone(), count, totalAnimDuration, eachAnimDuration);
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return containerWidth == key.containerWidth && containerHeight == key.containerHeight
+                    && touchX == key.touchX && touchY == key.touchY && count == key.count
+                    && totalAnimDuration == key.totalAnimDuration && eachAnimDuration == key.eachAnimDuration
+                    && Arrays.equals(iconIds, key.iconIds) && Arrays.equals(iconSizes, key.iconSizes);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = containerWidth;
+            result = 31 * result + containerHeight;
+            result = 31 * result + Float.floatToIntBits(touchX);
+            result = 31 * result + Float.floatToIntBits(touchY);
+            result = 31 * result + Arrays.hashCode(iconIds);
+            result = 31 * result + Arrays.hashCode(iconSizes);
+            result = 31 * result + count;
+            result = 31 * result + totalAnimDuration;
+            result = 31 * result + eachAnimDuration;
+            return result;
+        }
+    }
+}
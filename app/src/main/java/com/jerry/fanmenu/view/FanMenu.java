@@ -1,15 +1,14 @@
 package com.jerry.fanmenu.view;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.PointF;
 import android.graphics.Rect;
-import android.graphics.drawable.ColorDrawable;
+import android.graphics.RectF;
+import android.os.SystemClock;
 import android.support.annotation.ColorRes;
 import android.support.annotation.DrawableRes;
 import android.support.annotation.NonNull;
@@ -17,24 +16,35 @@ import android.support.annotation.Size;
 import android.support.v4.content.ContextCompat;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewGroup;
-import android.view.animation.LinearInterpolator;
-import android.widget.PopupWindow;
+
+import java.util.Arrays;
 
 /**
- * 扇形菜单（用PopupWindow实现）
+ * 扇形菜单（可以用PopupWindow显示，也可以直接画在容器的Overlay上，每个容器有自己的菜单和扇形视图，一直复用）
  * <p>
  * Created by xujierui on 2018/6/4.
  */
-public class FanMenu {
-    // 菜单显示位置与手指点击位置的距离
-    private static final int FINGER_DISTANCE = 200;
-    // 扇形最小半径
-    private static final int PAN_MIN_RADIUS = 500;
-
-    private static FanMenu _Instance;
-    private PopupWindow menu;
+public class FanMenu implements FanResourceStore.Trimmable {
+    // 用PopupWindow显示（窗口模式）
+    public static final int HOST_WINDOW = 0;
+    // 直接画在容器的Overlay上（无窗口模式）
+    public static final int HOST_OVERLAY = 1;
+
+    // 图标入场动画的缓动曲线：线性、减速、超出后回弹、弹簧
+    public static final int EASING_LINEAR = FanEasing.LINEAR;
+    public static final int EASING_DECELERATE = FanEasing.DECELERATE;
+    public static final int EASING_OVERSHOOT = FanEasing.OVERSHOOT;
+    public static final int EASING_SPRING = FanEasing.SPRING;
+
+    // 使用数据源时默认同时显示的扇形个数
+    public static final int DEFAULT_VISIBLE_SLOT_COUNT = 5;
+
+    // 扇形视图的显示方式，在同一个容器上一直复用，关闭菜单时只是隐藏扇形视图
+    private FanHost host;
     private FanView fanView;
+    private final Rect containerRect = new Rect();
+    // 扇形视图是否正在显示（隐藏后内存紧张时可以释放它的资源）
+    private boolean isShowing;
 
     // 背景颜色ID（注意这里PopupWindow和父容器是一样大的）
     @ColorRes
@@ -47,36 +57,115 @@ public class FanMenu {
     private int totalAnimDuration;
     // 每个动画时长
     private int eachAnimDuration;
+    // 是否在后台解码图标
+    private boolean asyncDecode;
+    // 图标显示尺寸（0表示使用图片原始尺寸）
+    private int iconSize;
+    // 是否缓存完全展开后的扇形
+    private boolean layerCacheEnabled;
+    // 是否把所有图标拼成一张图集绘制
+    private boolean atlasEnabled;
+    // 是否缓存布局结果
+    private boolean layoutCacheEnabled;
+    // 按下的时间（用于统计从按下到菜单第一帧的耗时）
+    private long touchDownTime;
+    // 显示方式
+    private int hostMode;
+    // 是否反向播放入场动画后再关闭
+    private boolean dismissAnimEnabled;
+    // 图标入场动画的缓动曲线
+    private int easing;
+    // 每个图标单独指定的缓动曲线
+    private int[] itemEasings;
+    // 性能数据监听
+    private FanMetricsListener metricsListener;
+    // 是否按帧间隔自动调整绘制质量
+    private boolean adaptiveQualityEnabled;
+    // 关闭动画结束后隐藏扇形视图
+    private final Runnable hideRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (host != null && fanView != null) {
+                host.hide(fanView);
+            }
+            isShowing = false;
+        }
+    };
 
     private OnFanSelectedListener onFanSelectedListener;
+    private OnFanHoverListener onFanHoverListener;
+    // 选中预测
+    private FanSelectionPredictor selectionPredictor;
+    // 菜单项很多时使用的数据源（设置后忽略menuDrawableIds）
+    private FanAdapter adapter;
+    // 使用数据源时同时显示的扇形个数
+    private int visibleSlotCount;
 
     private FanMenu() {
     }
 
     /**
-     * 创建扇形菜单
+     * 创建扇形菜单（每个容器创建一个，之后用{@link #resetParam()}复用）
      *
      * @return 扇形菜单
      */
     static FanMenu create() {
-        if (_Instance == null) {
-            _Instance = new FanMenu();
-        }
-        _Instance.resetParam();
-        return _Instance;
+        return new FanMenu().resetParam();
     }
 
-    private void resetParam() {
-        this.menu = new PopupWindow();
-        this.menu.setAnimationStyle(0);
-
+    /**
+     * 重置参数，准备下一次弹出
+     *
+     * @return 扇形菜单
+     */
+    FanMenu resetParam() {
         // 给予参数默认值
         this.bgColorId = -1;
         this.touchPoint = null;
         this.menuDrawableIds = null;
         this.onFanSelectedListener = null;
+        this.onFanHoverListener = null;
+        this.selectionPredictor = null;
+        this.adapter = null;
+        this.visibleSlotCount = DEFAULT_VISIBLE_SLOT_COUNT;
         this.totalAnimDuration = 500;
         this.eachAnimDuration = 200;
+        this.asyncDecode = false;
+        this.iconSize = 0;
+        this.layerCacheEnabled = false;
+        this.atlasEnabled = false;
+        this.layoutCacheEnabled = false;
+        this.touchDownTime = 0;
+        this.hostMode = HOST_WINDOW;
+        this.dismissAnimEnabled = false;
+        this.easing = EASING_LINEAR;
+        this.itemEasings = null;
+        this.metricsListener = null;
+        this.adaptiveQualityEnabled = false;
+        return this;
+    }
+
+    /**
+     * 在后台预先解码菜单图标，之后弹出菜单时可以直接使用缓存
+     * <p>
+     * 可以在Activity.onCreate或空闲时调用
+     *
+     * @param context 上下文
+     * @param ids     图标ID
+     */
+    public static void prewarm(@NonNull Context context, @DrawableRes @NonNull int[] ids) {
+        prewarm(context, ids, 0);
+    }
+
+    /**
+     * 在后台按指定尺寸预先解码菜单图标
+     *
+     * @param context  上下文
+     * @param ids      图标ID
+     * @param iconSize 图标显示尺寸，需要和{@link #setIconSize(int)}一致（0表示原始尺寸）
+     */
+    public static void prewarm(@NonNull Context context, @DrawableRes @NonNull int[] ids, int iconSize) {
+        FanIconLoader.prewarm(context.getResources(), ids, iconSize);
     }
 
     /**
@@ -112,6 +201,30 @@ public class FanMenu {
         return this;
     }
 
+    /**
+     * 设置菜单的数据源，只解码和绘制显示出来的菜单项，在扇形内侧的圆盘上转动手指可以逐格滚动
+     * <p>
+     * 使用数据源时必须设置{@link #setIconSize(int)}，滚出去的图标会放回位图池复用
+     *
+     * @param adapter 数据源
+     * @return 扇形菜单
+     */
+    FanMenu setAdapter(FanAdapter adapter) {
+        this.adapter = adapter;
+        return this;
+    }
+
+    /**
+     * 设置使用数据源时同时显示的扇形个数
+     *
+     * @param visibleSlotCount 扇形个数
+     * @return 扇形菜单
+     */
+    FanMenu setVisibleSlotCount(int visibleSlotCount) {
+        this.visibleSlotCount = visibleSlotCount;
+        return this;
+    }
+
     FanMenu setTotalAnimDuration(int totalAnimDuration) {
         this.totalAnimDuration = totalAnimDuration;
         return this;
@@ -122,47 +235,219 @@ public class FanMenu {
         return this;
     }
 
+    /**
+     * 设置是否在后台解码图标（解码完成前先绘制占位圆）
+     *
+     * @param asyncDecode 是否在后台解码
+     * @return 扇形菜单
+     */
+    FanMenu setAsyncDecode(boolean asyncDecode) {
+        this.asyncDecode = asyncDecode;
+        return this;
+    }
+
+    /**
+     * 设置图标显示尺寸，图标会直接按这个尺寸解码
+     *
+     * @param iconSize 图标尺寸（像素，0表示使用图片原始尺寸）
+     * @return 扇形菜单
+     */
+    FanMenu setIconSize(int iconSize) {
+        this.iconSize = iconSize;
+        return this;
+    }
+
+    /**
+     * 设置是否缓存完全展开后的扇形，开启后选中变化时只绘制缓存图层和选中的图标
+     *
+     * @param layerCacheEnabled 是否缓存
+     * @return 扇形菜单
+     */
+    FanMenu setLayerCacheEnabled(boolean layerCacheEnabled) {
+        this.layerCacheEnabled = layerCacheEnabled;
+        return this;
+    }
+
+    /**
+     * 设置是否缓存布局结果，开启后触摸点会按固定间距对齐，在相近位置重复弹出时直接使用缓存的布局（使用数据源时无效）
+     *
+     * @param layoutCacheEnabled 是否缓存
+     * @return 扇形菜单
+     */
+    FanMenu setLayoutCacheEnabled(boolean layoutCacheEnabled) {
+        this.layoutCacheEnabled = layoutCacheEnabled;
+        return this;
+    }
+
+    /**
+     * 设置是否把所有图标拼成一张图集，每个图标按图集中的区域绘制（使用数据源时无效）
+     *
+     * @param atlasEnabled 是否使用图集
+     * @return 扇形菜单
+     */
+    FanMenu setAtlasEnabled(boolean atlasEnabled) {
+        this.atlasEnabled = atlasEnabled;
+        return this;
+    }
+
+    /**
+     * 设置按下的时间，用于统计从按下到菜单第一帧的耗时
+     *
+     * @param touchDownTime 按下的时间（{@link android.os.SystemClock#uptimeMillis()}时间基准）
+     * @return 扇形菜单
+     */
+    FanMenu setTouchDownTime(long touchDownTime) {
+        this.touchDownTime = touchDownTime;
+        return this;
+    }
+
+    /**
+     * 设置显示方式
+     *
+     * @param hostMode {@link #HOST_WINDOW}或{@link #HOST_OVERLAY}
+     * @return 扇形菜单
+     */
+    FanMenu setHostMode(int hostMode) {
+        this.hostMode = hostMode;
+        return this;
+    }
+
+    /**
+     * 设置关闭时是否反向播放入场动画
+     *
+     * @param dismissAnimEnabled 是否播放关闭动画
+     * @return 扇形菜单
+     */
+    FanMenu setDismissAnimEnabled(boolean dismissAnimEnabled) {
+        this.dismissAnimEnabled = dismissAnimEnabled;
+        return this;
+    }
+
+    /**
+     * 设置所有图标入场动画的缓动曲线
+     *
+     * @param easing {@link #EASING_LINEAR}、{@link #EASING_DECELERATE}、{@link #EASING_OVERSHOOT}或{@link #EASING_SPRING}
+     * @return 扇形菜单
+     */
+    FanMenu setEasing(int easing) {
+        this.easing = easing;
+        return this;
+    }
+
+    /**
+     * 给每个图标单独设置入场动画的缓动曲线，没有指定的图标使用{@link #setEasing(int)}的曲线
+     *
+     * @param itemEasings 每个图标的缓动曲线
+     * @return 扇形菜单
+     */
+    FanMenu setItemEasings(int[] itemEasings) {
+        this.itemEasings = itemEasings;
+        return this;
+    }
+
+    /**
+     * 设置性能数据监听（为空时不做任何计时）
+     *
+     * @param metricsListener 性能数据监听
+     * @return 扇形菜单
+     */
+    FanMenu setMetricsListener(FanMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
+
+    /**
+     * 设置是否按帧间隔自动调整绘制质量（掉帧时依次关闭抖动、选中放大、所有图标同时动画）
+     *
+     * @param adaptiveQualityEnabled 是否自动调整绘制质量
+     * @return 扇形菜单
+     */
+    FanMenu setAdaptiveQualityEnabled(boolean adaptiveQualityEnabled) {
+        this.adaptiveQualityEnabled = adaptiveQualityEnabled;
+        return this;
+    }
+
     FanMenu setOnFanSelectedListener(OnFanSelectedListener onFanSelectedListener) {
         this.onFanSelectedListener = onFanSelectedListener;
         return this;
     }
 
+    FanMenu setOnFanHoverListener(OnFanHoverListener onFanHoverListener) {
+        this.onFanHoverListener = onFanHoverListener;
+        return this;
+    }
+
+    /**
+     * 设置选中预测（为空时只按真实位置选中）
+     *
+     * @param selectionPredictor 选中预测
+     * @return 扇形菜单
+     */
+    FanMenu setSelectionPredictor(FanSelectionPredictor selectionPredictor) {
+        this.selectionPredictor = selectionPredictor;
+        return this;
+    }
+
     /**
      * 显示菜单
      */
     FanMenu show(Context context, View container) throws RuntimeException {
         checkIsOk();
 
-        Rect containerRect = new Rect();
         container.getDrawingRect(containerRect);
+        int width = containerRect.width();
+        int height = containerRect.height();
 
-        menu.setWidth(containerRect.width());
-        menu.setHeight(containerRect.height());
+        if (host != null && (host.getContainer() != container || getHostMode(host) != hostMode)) {
+            // 换了容器或显示方式，原来的不能再用（只移除视图，不释放位图）
+            detachHost();
+        }
+        if (fanView == null) {
+            fanView = new FanView(context);
+        }
+        // 内存紧张时释放隐藏的扇形视图的资源（release时会取消登记）
+        FanResourceStore.getInstance(context).register(this);
+        fanView.resetParam();
+        fanView.setContainerRect(containerRect).setTouchPoint(touchPoint).setTouchDownTime(touchDownTime).setTotalAnimDuration(totalAnimDuration).setEachAnimDuration(eachAnimDuration).setAsyncDecode(asyncDecode).setIconSize(iconSize).setLayerCacheEnabled(layerCacheEnabled).setAtlasEnabled(atlasEnabled).setLayoutCacheEnabled(layoutCacheEnabled).setDismissAnimEnabled(dismissAnimEnabled).setEasing(easing).setItemEasings(itemEasings).setMetricsListener(metricsListener).setAdaptiveQualityEnabled(adaptiveQualityEnabled).setOnFanSelectedListener(onFanSelectedListener).setOnFanHoverListener(onFanHoverListener).setSelectionPredictor(selectionPredictor);
+        if (adapter != null) {
+            fanView.setAdapter(adapter, visibleSlotCount);
+        } else {
+            fanView.setMenuBitmaps(menuDrawableIds);
+        }
+        // 背景画在扇形视图上，隐藏视图时背景也一起隐藏
         if (bgColorId > 0) {
-            menu.setBackgroundDrawable(new ColorDrawable(ContextCompat.getColor(context, bgColorId)));
+            fanView.setBackgroundColor(ContextCompat.getColor(context, bgColorId));
         } else {
             // 默认透明背景
-            menu.setBackgroundDrawable(new ColorDrawable(0));
+            fanView.setBackgroundColor(0);
         }
 
-        fanView = FanView.create(context).setContainerRect(containerRect).setTouchPoint(touchPoint).setTotalAnimDuration(totalAnimDuration).setEachAnimDuration(eachAnimDuration).setMenuBitmaps(menuDrawableIds).setOnFanSelectedListener(onFanSelectedListener);
-        fanView.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
-        menu.setContentView(fanView);
-        fanView.startShowAnim();
+        if (host == null) {
+            host = hostMode == HOST_OVERLAY ? new OverlayFanHost(container) : new PopupFanHost(container);
+        }
 
-        menu.showAsDropDown(container, 0, -containerRect.height());
+        fanView.startShowAnim();
+        host.show(fanView, width, height);
+        isShowing = true;
 
         return this;
     }
 
     private void checkIsOk() {
-        if (menu == null) {
-            throw new RuntimeException("menu is null");
-        }
         if (touchPoint == null) {
             throw new RuntimeException("touchPoint is null");
         }
-        if (menuDrawableIds == null || menuDrawableIds.length <= 0) {
+        if (adapter != null) {
+            if (adapter.getCount() <= 0) {
+                throw new RuntimeException("adapter is empty");
+            }
+            if (visibleSlotCount <= 0) {
+                throw new RuntimeException("Invalid number " + visibleSlotCount + " visibleSlotCount must bigger than 0");
+            }
+            if (iconSize <= 0) {
+                throw new RuntimeException("iconSize must be set when using an adapter");
+            }
+        } else if (menuDrawableIds == null || menuDrawableIds.length <= 0) {
             throw new RuntimeException("menuDrawableIds is null or empty");
         }
         if (totalAnimDuration <= 0) {
@@ -171,13 +456,88 @@ public class FanMenu {
         if (eachAnimDuration <= 0) {
             throw new RuntimeException("Invalid number " + eachAnimDuration + " eachAnimDuration must bigger than 0");
         }
+        if (hostMode != HOST_WINDOW && hostMode != HOST_OVERLAY) {
+            throw new RuntimeException("Invalid hostMode " + hostMode);
+        }
+        checkEasing(easing);
+        if (itemEasings != null) {
+            for (int itemEasing : itemEasings) {
+                checkEasing(itemEasing);
+            }
+        }
+        if (iconSize < 0) {
+            throw new RuntimeException("Invalid number " + iconSize + " iconSize must not be negative");
+        }
+    }
+
+    private static void checkEasing(int easing) {
+        if (easing < 0 || easing >= FanEasing.TYPE_COUNT) {
+            throw new RuntimeException("Invalid easing " + easing);
+        }
     }
 
     /**
      * 关闭菜单
      */
     void dismiss() {
-        menu.dismiss();
+        // 只隐藏扇形视图，下次弹出时直接复用
+        if (host != null && fanView != null) {
+            fanView.startDismissAnim(hideRunnable);
+        }
+    }
+
+    /**
+     * 释放依附在容器上的窗口或图层（容器从窗口移除时调用）
+     *
+     * @param container 容器
+     */
+    void release(View container) {
+        if (host == null || host.getContainer() != container) {
+            return;
+        }
+        detachHost();
+        if (fanView != null) {
+            fanView.releaseResources(false);
+            FanResourceStore.getInstance(fanView.getContext()).unregister(this);
+        }
+    }
+
+    /**
+     * 从容器上移除扇形视图，保留视图持有的位图
+     */
+    private void detachHost() {
+        if (fanView != null) {
+            fanView.cancelAnim();
+            host.release(fanView);
+        }
+        host = null;
+        isShowing = false;
+    }
+
+    @Override
+    public void onTrim(int trimLevel) {
+        if (trimLevel >= FanResourceStore.TRIM_ALL && !isShowing && fanView != null) {
+            // 位图池刚被清空，数据源的位图直接丢弃，不再放回去
+            fanView.releaseResources(true);
+        }
+    }
+
+    private static int getHostMode(FanHost host) {
+        return host instanceof OverlayFanHost ? HOST_OVERLAY : HOST_WINDOW;
+    }
+
+    /**
+     * @return 上一次从按下到菜单第一帧的耗时（毫秒），还没有统计到时返回-1
+     */
+    long getLastShowLatency() {
+        return fanView != null ? fanView.getLastShowLatency() : -1;
+    }
+
+    /**
+     * @return 当前选中的扇形序号（使用数据源时为菜单项序号），没有选中返回-1
+     */
+    int getSelectedIndex() {
+        return fanView != null ? fanView.toPosition(fanView.selFanIndex) : -1;
     }
 
     public void onTouchEvent(MotionEvent ev) {
@@ -186,43 +546,156 @@ public class FanMenu {
         }
     }
 
-    private static class FanView extends View {
+    /**
+     * 直接执行一次扇形视图的onDraw（没有窗口和渲染线程的测试环境中由测试驱动每一帧）
+     *
+     * @param canvas 画布
+     */
+    void drawFrame(@NonNull Canvas canvas) {
+        if (fanView != null) {
+            fanView.onDraw(canvas);
+        }
+    }
+
+    private static class FanView extends View implements FanAnimator.Listener, FanFrameDrawer.Icons {
         private static final String TAG = "FanView";
-        private float fanRadius;
+        // 占位圆的颜色
+        private static final int PLACEHOLDER_COLOR = 0x33000000;
+        // 选中图标的放大倍数
+        private static final float SEL_SCALE = FanFrameDrawer.SEL_SCALE;
+        // 帧间隔预算（60fps下一帧16.7ms，超过1.5帧就算掉帧）
+        private static final float FRAME_BUDGET_MILLIS = 25f;
+        // 转盘半径占最内环半径的比例
+        private static final float DIAL_RADIUS_RATIO = 0.5f;
+        // 开启图层缓存时触摸点按这个间距对齐，相近位置弹出的菜单可以共用图层
+        private static final int LAYER_TOUCH_BUCKET = 32;
+        // 默认画笔（跨多次弹出复用，自动调整质量时只修改它）
+        private final Paint defaultPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         private Paint fanPaint;
+        private Paint placeholderPaint;
 
         private PointF touchPoint;
         private Rect containerRect;
 
         private Bitmap[] menuBitmaps;
+        // 每个图标的高度（位图还没解码好时也能用来计算布局）
+        private int[] iconSizes;
+        // 图标ID
+        private int[] iconIds;
+        // 是否在后台解码图标
+        private boolean asyncDecode;
+        // 图标显示尺寸（0表示使用图片原始尺寸）
+        private int iconSize;
+        // 每次设置图标时加一，用来丢弃过期的解码结果
+        private int loadGeneration;
+        // 数据源，为空时显示iconIds中的全部图标
+        private FanAdapter adapter;
+        // 第一个扇形对应的菜单项序号
+        private int firstPosition;
+        // 转盘按下时的角度，NaN表示手指不在转盘上
+        private float dialAngle = Float.NaN;
 
         // 选中的扇形序号
         private int selFanIndex;
+        // 真实位置选中的序号（开启预测时高亮的可能是预测的序号）
+        private int realSelIndex;
+        private FanSelectionPredictor selectionPredictor;
         // 扇形个数
         private int fanCount;
-        // 扇形角度
-        private int fanAngle;
+        // 不使用布局缓存时复用的布局
+        private final FanLayoutCache.Layout ownLayout = new FanLayoutCache.Layout();
+        // 本次弹出使用的布局（来自布局缓存或ownLayout）
+        private FanLayoutCache.Layout layout = ownLayout;
+        // 是否缓存布局结果
+        private boolean layoutCacheEnabled;
+        // 扇形的半径、角度和命中检测
+        private FanGeometry geometry = ownLayout.geometry;
+        // 每个图标完全展开后的变换矩阵（绘制缓存图层时使用）
+        private Matrix[] itemMatrices;
+        // 绘制时使用的临时矩阵
+        private final Matrix drawMatrix = new Matrix();
+        // 每个图标完全展开并放大后在屏幕上的区域
+        private RectF[] itemBounds;
+        // 待刷新的区域
+        private final Rect dirtyRect = new Rect();
+
+        // 是否缓存完全展开后的扇形
+        private boolean layerCacheEnabled;
+        // 完全展开后的扇形图层（跨多次弹出复用）
+        private final FanLayer fanLayer = new FanLayer();
+        // 本次弹出的图层是否可用
+        private boolean isLayerReady;
+
+        // 是否把所有图标拼成一张图集绘制
+        private boolean atlasEnabled;
+        // 图标图集（和其他容器共享，来自resourceStore）
+        private FanIconAtlas iconAtlas;
+        // 共享的图标缓存、图集和布局缓存
+        private final FanResourceStore resourceStore;
+        // 本次弹出的图集是否可用
+        private boolean isAtlasReady;
+        // 绘制时图标在屏幕上的区域
+        private final RectF drawRect = new RectF();
+        // 每一帧的绘制逻辑（纯Java），输出到画布
+        private final FanFrameDrawer frameDrawer = new FanFrameDrawer(this);
+        private final CanvasRenderer canvasRenderer = new CanvasRenderer();
+
+        // 按下的时间
+        private long touchDownTime;
+        // 是否还在等待弹出后的第一帧
+        private boolean isWaitingFirstDraw;
+        // 上一次从按下到第一帧的耗时
+        private long lastShowLatency = -1;
+
+        // 性能数据监听
+        private FanMetricsListener metricsListener;
+        // 入场动画的帧数和帧间隔超出预算的帧数
+        private int animFrameCount;
+        private int overBudgetFrameCount;
+        // 上一帧的动画时间
+        private float lastFrameTime;
+
+        // 是否按帧间隔自动调整绘制质量
+        private boolean adaptiveQualityEnabled;
+        // 绘制质量的档位（跨多次弹出保留）
+        private final FanQualityController qualityController = new FanQualityController(FRAME_BUDGET_MILLIS);
+        // 动画中上一次绘制的时间，0表示动画刚开始
+        private long lastDrawNanos;
 
         // 扇形入场动画
-        private ObjectAnimator showAnim;
-        private int curTime;
+        private final FanAnimator showAnim = new FanAnimator(this);
+        private float curTime;
         private int totalAnimDuration;
         private int eachAnimDuration;
-        private AnimStartEnd[] eachAnimStartEnd;
+        // 每个图标动画的开始和结束时间（为空表示还没有布局）
+        private float[] animStart;
+        private float[] animEnd;
         // 是否在播放动画
         private boolean isPlayingAnim;
+        // 是否反向播放动画后再关闭
+        private boolean dismissAnimEnabled;
+        // 关闭动画结束后执行
+        private Runnable onDismissEnd;
+        // 每种缓动曲线的查找表（第一次用到时采样，之后一直复用）
+        private final FanEasing[] easingTables = new FanEasing[FanEasing.TYPE_COUNT];
+        // 所有图标默认使用的缓动曲线
+        private int easing;
+        // 每个图标单独指定的缓动曲线
+        private int[] itemEasings;
+        // 本次布局中每个图标使用的查找表
+        private FanEasing[] itemEasingTables;
+        // 布局并开始入场动画（在视图布局完成后执行）
+        private final Runnable startAnimRunnable = new Runnable() {
+            @Override
+            public void run() {
+                initAnim();
+                isPlayingAnim = true;
+                showAnim.start(totalAnimDuration);
+            }
+        };
 
         private OnFanSelectedListener onFanSelectedListener;
-
-        private static FanView _Instance;
-
-        public static FanView create(Context context) {
-            if (_Instance == null) {
-                _Instance = new FanView(context);
-            }
-            _Instance.resetParam();
-            return _Instance;
-        }
+        private OnFanHoverListener onFanHoverListener;
 
         /**
          * 创建扇形菜单
@@ -231,6 +704,7 @@ public class FanMenu {
          */
         private FanView(Context context) {
             super(context);
+            resourceStore = FanResourceStore.getInstance(context);
         }
 
         /**
@@ -238,27 +712,59 @@ public class FanMenu {
          */
         public void resetParam() {
             this.curTime = 0;
-            this.fanRadius = 0;
             this.containerRect = null;
-            this.menuBitmaps = null;
+            releaseBitmaps(false);
+            this.adapter = null;
+            this.firstPosition = 0;
+            this.dialAngle = Float.NaN;
             this.selFanIndex = -1;
+            this.realSelIndex = -1;
+            this.selectionPredictor = null;
             this.fanCount = 0;
-            this.fanAngle = 0;
+            // 布局可能来自缓存，只清空自己的布局
+            this.layout = ownLayout;
+            this.geometry = ownLayout.geometry;
+            this.geometry.reset();
+            this.layoutCacheEnabled = false;
             this.totalAnimDuration = 500;
             this.eachAnimDuration = 200;
-            this.eachAnimStartEnd = null;
+            this.animStart = null;
+            this.animEnd = null;
             this.isPlayingAnim = false;
-
-            if (this.showAnim != null) {
-                this.showAnim.end();
-                this.showAnim = null;
+            this.asyncDecode = false;
+            this.iconSize = 0;
+            this.iconIds = null;
+            this.layerCacheEnabled = false;
+            this.isLayerReady = false;
+            this.atlasEnabled = false;
+            this.isAtlasReady = false;
+            this.touchDownTime = 0;
+            this.isWaitingFirstDraw = false;
+            this.metricsListener = null;
+            this.animFrameCount = 0;
+            this.overBudgetFrameCount = 0;
+            this.loadGeneration++;
+
+            this.dismissAnimEnabled = false;
+            this.onDismissEnd = null;
+            this.easing = FanEasing.LINEAR;
+            this.itemEasings = null;
+            // 打断上一次的动画（包括还没结束的关闭动画）
+            this.showAnim.cancel();
+            removeCallbacks(startAnimRunnable);
+
+            // 画笔的质量在布局时按档位设置
+            this.fanPaint = defaultPaint;
+            this.adaptiveQualityEnabled = false;
+            this.lastDrawNanos = 0;
+
+            if (this.placeholderPaint == null) {
+                this.placeholderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                this.placeholderPaint.setColor(PLACEHOLDER_COLOR);
             }
 
-            this.fanPaint = new Paint();
-            this.fanPaint.setAntiAlias(true);
-            this.fanPaint.setDither(true);
-
             this.onFanSelectedListener = null;
+            this.onFanHoverListener = null;
         }
 
         /**
@@ -266,9 +772,66 @@ public class FanMenu {
          *
          * @param curTime 当前动画播放时间
          */
-        private void setCurTime(int curTime) {
+        private void setCurTime(float curTime) {
+            if (animStart == null) {
+                this.curTime = curTime;
+                return;
+            }
+
+            // 只刷新这一帧进度有变化的图标所在区域
+            dirtyRect.setEmpty();
+            for (int i = 0; i < fanCount; i++) {
+                float lastProgress = frameDrawer.getItemProgress(i, this.curTime);
+                float progress = frameDrawer.getItemProgress(i, curTime);
+                if (lastProgress != progress) {
+                    unionItemBounds(i, lastProgress);
+                    unionItemBounds(i, progress);
+                }
+            }
             this.curTime = curTime;
-            invalidate();
+
+            if (!dirtyRect.isEmpty()) {
+                invalidate(dirtyRect);
+            }
+        }
+
+        /**
+         * 把图标在某个进度下的屏幕区域并入待刷新区域
+         *
+         * @param index    扇形序号
+         * @param progress 动画进度
+         */
+        private void unionItemBounds(int index, float progress) {
+            if (progress <= 0) {
+                return;
+            }
+            RectF bounds = itemBounds[index];
+            int width = containerRect.width();
+            int height = containerRect.height();
+            // 动画以右下角为中心缩放，多留1像素给抗锯齿
+            dirtyRect.union((int) (width + (bounds.left - width) * progress) - 1,
+                    (int) (height + (bounds.top - height) * progress) - 1,
+                    (int) Math.ceil(width + (bounds.right - width) * progress) + 1,
+                    (int) Math.ceil(height + (bounds.bottom - height) * progress) + 1);
+        }
+
+        /**
+         * 刷新选中状态有变化的两个图标
+         *
+         * @param lastSelIndex 上次选中的序号
+         * @param selIndex     当前选中的序号
+         */
+        private void invalidateSelection(int lastSelIndex, int selIndex) {
+            dirtyRect.setEmpty();
+            if (lastSelIndex >= 0 && lastSelIndex < fanCount) {
+                unionItemBounds(lastSelIndex, frameDrawer.getItemProgress(lastSelIndex, curTime));
+            }
+            if (selIndex >= 0 && selIndex < fanCount) {
+                unionItemBounds(selIndex, frameDrawer.getItemProgress(selIndex, curTime));
+            }
+            if (!dirtyRect.isEmpty()) {
+                invalidate(dirtyRect);
+            }
         }
 
         /**
@@ -291,104 +854,437 @@ public class FanMenu {
             return this;
         }
 
-        public FanView setMenuBitmaps(@DrawableRes @NonNull int[] iconIds) {
-            if (iconIds.length > 0) {
-                this.fanCount = iconIds.length;
-                this.menuBitmaps = new Bitmap[fanCount];
-                for (int i = 0; i < fanCount; i++) {
-                    // 将资源ID转为位图
-                    menuBitmaps[i] = BitmapFactory.decodeResource(getResources(), iconIds[i]);
-                }
-            }
+        /**
+         * 是否在后台解码图标（需要在{@link #setMenuBitmaps(int[])}之前设置）
+         *
+         * @param asyncDecode 是否在后台解码
+         */
+        public FanView setAsyncDecode(boolean asyncDecode) {
+            this.asyncDecode = asyncDecode;
             return this;
         }
 
-        public FanView setTouchPoint(@NonNull PointF touchPoint) {
-            this.touchPoint = touchPoint;
+        /**
+         * 图标显示尺寸（需要在{@link #setMenuBitmaps(int[])}之前设置）
+         *
+         * @param iconSize 图标尺寸（0表示使用图片原始尺寸）
+         */
+        public FanView setIconSize(@Size(min = 0) int iconSize) {
+            this.iconSize = iconSize;
             return this;
         }
 
-        public FanView setFanPaint(@NonNull Paint fanPaint) {
-            this.fanPaint = fanPaint;
+        /**
+         * 按下的时间，用于统计从按下到第一帧的耗时
+         *
+         * @param touchDownTime 按下的时间（0表示不统计）
+         */
+        public FanView setTouchDownTime(long touchDownTime) {
+            this.touchDownTime = touchDownTime;
+            this.isWaitingFirstDraw = touchDownTime > 0;
             return this;
         }
 
-        public FanView setContainerRect(@NonNull Rect containerRect) {
-            this.containerRect = containerRect;
-            return this;
+        public long getLastShowLatency() {
+            return lastShowLatency;
         }
 
-        public FanView setOnFanSelectedListener(OnFanSelectedListener onFanSelectedListener) {
-            this.onFanSelectedListener = onFanSelectedListener;
+        /**
+         * 是否按动画中的帧间隔自动调整绘制质量
+         *
+         * @param adaptiveQualityEnabled 是否自动调整
+         */
+        public FanView setAdaptiveQualityEnabled(boolean adaptiveQualityEnabled) {
+            this.adaptiveQualityEnabled = adaptiveQualityEnabled;
             return this;
         }
 
-        public FanView startShowAnim() {
-            post(new Runnable() {
-                @Override
-                public void run() {
-                    initAnim();
-                    showAnim.start();
-                    showAnim.addListener(new Animator.AnimatorListener() {
-                        @Override
-                        public void onAnimationStart(Animator animation) {
-                            isPlayingAnim = true;
-                        }
-
-                        @Override
-                        public void onAnimationEnd(Animator animation) {
-                            isPlayingAnim = false;
-                        }
-
-                        @Override
-                        public void onAnimationCancel(Animator animation) {
-                            isPlayingAnim = false;
-                        }
-
-                        @Override
-                        public void onAnimationRepeat(Animator animation) {
-                            isPlayingAnim = true;
-                        }
-                    });
-                }
-            });
+        /**
+         * 性能数据监听（需要在{@link #setMenuBitmaps(int[])}之前设置）
+         *
+         * @param metricsListener 性能数据监听
+         */
+        public FanView setMetricsListener(FanMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
             return this;
         }
 
         /**
-         * 计算每个扇形所占的角度
+         * 是否缓存完全展开后的扇形
          *
-         * @param fanRadius      扇形的半径
-         * @param containerWidth 容器的宽度
-         * @param bitmapRadius   位图的半径
+         * @param layerCacheEnabled 是否缓存
          */
-        private void calFanAngle(float fanRadius, int containerWidth, int bitmapRadius) {
-            // 扇形菜单展示的最大半径
-            float maxRadius = fanRadius + bitmapRadius;
+        public FanView setLayerCacheEnabled(boolean layerCacheEnabled) {
+            this.layerCacheEnabled = layerCacheEnabled;
+            return this;
+        }
 
-            // 如果最大半径超过容器宽度，那么把扇形角度变小防止图标显示到外面去
-            if (maxRadius <= containerWidth) {
-                fanAngle = 90 / fanCount;
-                return;
+        /**
+         * 是否缓存布局结果（使用数据源时无效）
+         *
+         * @param layoutCacheEnabled 是否缓存
+         */
+        public FanView setLayoutCacheEnabled(boolean layoutCacheEnabled) {
+            this.layoutCacheEnabled = layoutCacheEnabled;
+            return this;
+        }
+
+        /**
+         * 是否把所有图标拼成一张图集绘制（使用数据源时无效）
+         *
+         * @param atlasEnabled 是否使用图集
+         */
+        public FanView setAtlasEnabled(boolean atlasEnabled) {
+            this.atlasEnabled = atlasEnabled;
+            return this;
+        }
+
+        public FanView setMenuBitmaps(@DrawableRes @NonNull int[] iconIds) {
+            if (iconIds.length > 0) {
+                this.fanCount = iconIds.length;
+                this.iconIds = iconIds;
+                // 个数不变时复用数组
+                if (menuBitmaps == null || menuBitmaps.length != fanCount) {
+                    this.menuBitmaps = new Bitmap[fanCount];
+                    this.iconSizes = new int[fanCount];
+                }
+                this.loadGeneration++;
+                FanIconCache iconCache = FanIconCache.getInstance();
+                int missCount = 0;
+                for (int i = 0; i < fanCount; i++) {
+                    // 优先从缓存中获取位图
+                    menuBitmaps[i] = iconCache.peekIcon(iconIds[i], iconSize);
+                    if (menuBitmaps[i] == null) {
+                        missCount++;
+                        if (asyncDecode) {
+                            // 缓存中没有则交给后台解码，先用占位圆代替
+                            FanIconLoader.load(getResources(), iconIds[i], iconSize, new IconLoadedCallback(loadGeneration, i));
+                        } else if (metricsListener != null) {
+                            long startNanos = System.nanoTime();
+                            menuBitmaps[i] = iconCache.decodeIcon(getResources(), iconIds[i], iconSize);
+                            metricsListener.onIconDecoded(System.nanoTime() - startNanos, false);
+                        } else {
+                            menuBitmaps[i] = iconCache.decodeIcon(getResources(), iconIds[i], iconSize);
+                        }
+                    }
+                    if (iconSize > 0) {
+                        // 图标已经按显示尺寸解码
+                        iconSizes[i] = iconSize;
+                    } else {
+                        iconSizes[i] = menuBitmaps[i] != null ? menuBitmaps[i].getHeight() : iconCache.getIconHeight(getResources(), iconIds[i]);
+                    }
+                }
+                if (metricsListener != null) {
+                    metricsListener.onIconCacheResult(fanCount - missCount, missCount);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 使用数据源，只绑定显示出来的扇形（需要先设置图标尺寸）
+         *
+         * @param adapter          数据源
+         * @param visibleSlotCount 同时显示的扇形个数
+         */
+        public FanView setAdapter(@NonNull FanAdapter adapter, int visibleSlotCount) {
+            this.adapter = adapter;
+            this.firstPosition = 0;
+            this.fanCount = Math.min(adapter.getCount(), visibleSlotCount);
+            if (menuBitmaps == null || menuBitmaps.length != fanCount) {
+                this.menuBitmaps = new Bitmap[fanCount];
+                this.iconSizes = new int[fanCount];
+            }
+            if (iconIds == null || iconIds.length != fanCount) {
+                this.iconIds = new int[fanCount];
+            }
+            // 所有扇形使用同一个尺寸，滚动时布局不变
+            Arrays.fill(iconSizes, iconSize);
+            this.loadGeneration++;
+            for (int i = 0; i < fanCount; i++) {
+                bindSlot(i);
+            }
+            return this;
+        }
+
+        /**
+         * 把第slot个扇形绑定到对应的菜单项，解码它的图标
+         *
+         * @param slot 扇形序号
+         */
+        private void bindSlot(int slot) {
+            int position = firstPosition + slot;
+            iconIds[slot] = adapter.getIconId(position);
+            if (asyncDecode) {
+                // 解码完成前先用占位圆代替
+                FanIconLoader.loadRecyclable(getResources(), iconIds[slot], iconSize, new IconLoadedCallback(loadGeneration, slot, position));
+            } else if (metricsListener != null) {
+                long startNanos = System.nanoTime();
+                menuBitmaps[slot] = FanIconCache.getInstance().decodeRecyclableIcon(getResources(), iconIds[slot], iconSize);
+                metricsListener.onIconDecoded(System.nanoTime() - startNanos, false);
+            } else {
+                menuBitmaps[slot] = FanIconCache.getInstance().decodeRecyclableIcon(getResources(), iconIds[slot], iconSize);
+            }
+        }
+
+        /**
+         * 释放对图标位图的引用
+         *
+         * @param isTrimming 是否因内存紧张而释放（此时数据源的位图不放回位图池）
+         */
+        private void releaseBitmaps(boolean isTrimming) {
+            if (this.menuBitmaps != null) {
+                if (adapter != null && !isTrimming) {
+                    // 数据源的位图不在缓存中，放回位图池
+                    for (int i = 0; i < fanCount; i++) {
+                        recycleSlot(i);
+                    }
+                }
+                // 保留数组以便下次复用，只释放对位图的引用
+                Arrays.fill(this.menuBitmaps, null);
+            }
+        }
+
+        /**
+         * 释放隐藏时仍然持有的位图（图标、图层和图集），下次弹出时重新准备
+         *
+         * @param isTrimming 是否因内存紧张而释放（此时数据源的位图不放回位图池）
+         */
+        void releaseResources(boolean isTrimming) {
+            releaseBitmaps(isTrimming);
+            // 之后到来的解码结果都是过期的
+            this.loadGeneration++;
+            this.fanLayer.release();
+            this.isLayerReady = false;
+            this.iconAtlas = null;
+            this.isAtlasReady = false;
+        }
+
+        /**
+         * 把第slot个扇形的位图放回位图池
+         *
+         * @param slot 扇形序号
+         */
+        private void recycleSlot(int slot) {
+            if (menuBitmaps[slot] != null) {
+                FanIconCache.getInstance().recycleIcon(menuBitmaps[slot]);
+                menuBitmaps[slot] = null;
+            }
+        }
+
+        /**
+         * 滚动数据源，移出的扇形位图放回位图池，移入的扇形重新绑定，仍然可见的直接挪位置
+         *
+         * @param delta 滚动的格数（正数向后滚动）
+         */
+        private void scrollBy(int delta) {
+            int newFirstPosition = Math.max(0, Math.min(adapter.getCount() - fanCount, firstPosition + delta));
+            delta = newFirstPosition - firstPosition;
+            if (delta == 0) {
+                return;
+            }
+
+            if (Math.abs(delta) >= fanCount) {
+                for (int i = 0; i < fanCount; i++) {
+                    recycleSlot(i);
+                }
+            } else if (delta > 0) {
+                for (int i = 0; i < delta; i++) {
+                    recycleSlot(i);
+                }
+                System.arraycopy(menuBitmaps, delta, menuBitmaps, 0, fanCount - delta);
+                Arrays.fill(menuBitmaps, fanCount - delta, fanCount, null);
+            } else {
+                for (int i = fanCount + delta; i < fanCount; i++) {
+                    recycleSlot(i);
+                }
+                System.arraycopy(menuBitmaps, 0, menuBitmaps, -delta, fanCount + delta);
+                Arrays.fill(menuBitmaps, 0, -delta, null);
+            }
+            firstPosition = newFirstPosition;
+
+            for (int i = 0; i < fanCount; i++) {
+                if (menuBitmaps[i] == null) {
+                    bindSlot(i);
+                } else {
+                    iconIds[i] = adapter.getIconId(firstPosition + i);
+                }
+                updateItemMatrix(i);
+            }
+            // 所有扇形的内容都变了，图层需要重新准备
+            isLayerReady = false;
+            invalidate();
+            prepareLayer();
+        }
+
+        /**
+         * 手指在扇形内侧的转盘上转动时逐格滚动数据源
+         *
+         * @param x 触摸点横坐标
+         * @param y 触摸点纵坐标
+         * @return 手指是否在转盘上
+         */
+        private boolean trackDial(float x, float y) {
+            float dx = containerRect.width() - x;
+            float dy = containerRect.height() - y;
+            float dialRadius = geometry.getMinRingRadius() * DIAL_RADIUS_RATIO;
+            if (dx < 0 || dy < 0 || dx * dx + dy * dy > dialRadius * dialRadius) {
+                dialAngle = Float.NaN;
+                return false;
             }
 
-            int forbiddenAngle = (int) Math.toDegrees(Math.acos(containerWidth / maxRadius));
-            fanAngle = (90 - forbiddenAngle) / fanCount;
+            float angle = FanGeometry.fastAngle(dx, dy);
+            if (Float.isNaN(dialAngle)) {
+                dialAngle = angle;
+                return true;
+            }
+            // 每转过一个扇形的角度滚动一格，扇形跟着手指转动
+            float slotAngle = geometry.getFanAngle();
+            int steps = (int) ((angle - dialAngle) / slotAngle);
+            if (steps != 0) {
+                dialAngle += steps * slotAngle;
+                scrollBy(-steps);
+            }
+            return true;
+        }
+
+        /**
+         * @param slot 扇形序号
+         * @return 对应的菜单项序号（没有数据源时就是扇形序号），slot小于0时返回-1
+         */
+        int toPosition(int slot) {
+            return slot >= 0 && adapter != null ? firstPosition + slot : slot;
+        }
+
+        public FanView setTouchPoint(@NonNull PointF touchPoint) {
+            this.touchPoint = touchPoint;
+            return this;
+        }
+
+        public FanView setFanPaint(@NonNull Paint fanPaint) {
+            this.fanPaint = fanPaint;
+            return this;
+        }
+
+        public FanView setContainerRect(@NonNull Rect containerRect) {
+            this.containerRect = containerRect;
+            return this;
+        }
+
+        public FanView setOnFanSelectedListener(OnFanSelectedListener onFanSelectedListener) {
+            this.onFanSelectedListener = onFanSelectedListener;
+            return this;
+        }
+
+        public FanView setOnFanHoverListener(OnFanHoverListener onFanHoverListener) {
+            this.onFanHoverListener = onFanHoverListener;
+            return this;
         }
 
-        private void calFanRadius(int containerWidth, int containerHeight, PointF touchPoint, int bitmapRadius) {
-            // 加上200是为了让菜单能出现在手指前面，而不会被盖掉
-            this.fanRadius = new PointF(containerWidth - touchPoint.x, containerHeight - touchPoint.y).length() + FINGER_DISTANCE;
-            // 扇形菜单展示的最大半径
-            float maxRadius = fanRadius + bitmapRadius;
+        public FanView setSelectionPredictor(FanSelectionPredictor selectionPredictor) {
+            this.selectionPredictor = selectionPredictor;
+            return this;
+        }
 
-            // 如果最大半径超过容器高度，那么把半径设成不会超过容器高度
-            if (maxRadius > containerHeight) {
-                this.fanRadius = containerHeight - bitmapRadius;
+        public FanView startShowAnim() {
+            post(startAnimRunnable);
+            return this;
+        }
+
+        /**
+         * 是否反向播放入场动画后再关闭
+         *
+         * @param dismissAnimEnabled 是否播放关闭动画
+         */
+        public FanView setDismissAnimEnabled(boolean dismissAnimEnabled) {
+            this.dismissAnimEnabled = dismissAnimEnabled;
+            return this;
+        }
+
+        /**
+         * 所有图标入场动画的缓动曲线
+         *
+         * @param easing 缓动曲线
+         */
+        public FanView setEasing(int easing) {
+            this.easing = easing;
+            return this;
+        }
+
+        /**
+         * 每个图标单独的缓动曲线
+         *
+         * @param itemEasings 每个图标的缓动曲线（可以为空或比图标少）
+         */
+        public FanView setItemEasings(int[] itemEasings) {
+            this.itemEasings = itemEasings;
+            return this;
+        }
+
+        /**
+         * 从当前进度反向播放动画，播放完后执行onEnd（不需要关闭动画时直接执行）
+         *
+         * @param onEnd 动画结束后执行
+         */
+        public void startDismissAnim(@NonNull Runnable onEnd) {
+            if (!dismissAnimEnabled || animStart == null) {
+                removeCallbacks(startAnimRunnable);
+                showAnim.cancel();
+                onEnd.run();
+                return;
+            }
+
+            onDismissEnd = onEnd;
+            isPlayingAnim = true;
+            if (isLayerReady) {
+                // 反向动画需要逐个绘制图标
+                isLayerReady = false;
+                invalidate();
+            } else {
+                // 选中的图标恢复原大小
+                invalidateSelection(selFanIndex, -1);
             }
+            showAnim.reverse();
+        }
 
-            // 设定最小半径为500
-            this.fanRadius = Math.max(PAN_MIN_RADIUS, this.fanRadius);
+        /**
+         * 停止所有动画，不执行关闭动画的回调
+         */
+        public void cancelAnim() {
+            removeCallbacks(startAnimRunnable);
+            showAnim.cancel();
+            lastDrawNanos = 0;
+            onDismissEnd = null;
+            isPlayingAnim = false;
+        }
+
+        @Override
+        public void onAnimFrame(float time) {
+            if (metricsListener != null && !showAnim.isReversed()) {
+                // 统计入场动画中帧间隔超出预算的帧
+                if (animFrameCount > 0 && time - lastFrameTime > FRAME_BUDGET_MILLIS) {
+                    overBudgetFrameCount++;
+                }
+                animFrameCount++;
+                lastFrameTime = time;
+            }
+            setCurTime(time);
+        }
+
+        @Override
+        public void onAnimEnd(boolean isReversed) {
+            isPlayingAnim = false;
+            lastDrawNanos = 0;
+            if (!isReversed) {
+                if (metricsListener != null) {
+                    metricsListener.onShowAnimEnd(animFrameCount, overBudgetFrameCount);
+                }
+                prepareLayer();
+            } else if (onDismissEnd != null) {
+                Runnable onEnd = onDismissEnd;
+                onDismissEnd = null;
+                onEnd.run();
+            }
         }
 
         /**
@@ -397,26 +1293,218 @@ public class FanMenu {
         private void initAnim() throws RuntimeException {
             checkIsOk();
 
+            this.animFrameCount = 0;
+            this.overBudgetFrameCount = 0;
+            if (selectionPredictor != null) {
+                selectionPredictor.beginGesture();
+            }
+
             // 设置当前动画进度为0
             this.curTime = 0;
 
-            this.showAnim = ObjectAnimator.ofInt(this, "curTime", 0, totalAnimDuration);
-            this.showAnim.setDuration(totalAnimDuration);
-            this.showAnim.setInterpolator(new LinearInterpolator());
+            float layoutX = touchPoint.x;
+            float layoutY = touchPoint.y;
+            if (layerCacheEnabled || layoutCacheEnabled) {
+                // 触摸点对齐后，相近位置弹出的菜单布局完全一样，可以共用图层和布局
+                layoutX = quantizeTouch(layoutX);
+                layoutY = quantizeTouch(layoutY);
+            }
+            int width = containerRect.width();
+            int height = containerRect.height();
+            // 数据源滚动时会改写布局中的矩阵，不能放进缓存
+            boolean isCacheable = layoutCacheEnabled && adapter == null;
+            FanLayoutCache layoutCache = FanLayoutCache.getInstance();
+            FanLayoutCache.Layout cachedLayout = isCacheable ? layoutCache.get(width, height, layoutX, layoutY, iconIds, iconSizes, fanCount, totalAnimDuration, eachAnimDuration) : null;
+            if (cachedLayout != null) {
+                useLayout(cachedLayout);
+                // 只补算上次还没解码好的图标的矩阵
+                for (int i = 0; i < fanCount; i++) {
+                    if (!layout.hasMatrix[i]) {
+                        updateItemMatrix(i);
+                    }
+                }
+            } else {
+                FanLayoutCache.Layout newLayout = isCacheable ? new FanLayoutCache.Layout() : ownLayout;
+                newLayout.ensureCapacity(fanCount);
+                // 计算扇形半径和每个扇形分到的角度
+                newLayout.geometry.layout(width, height, layoutX, layoutY, iconSizes, fanCount);
+                // 计算每个动画的开始和结束时间
+                FanFrameDrawer.calSchedule(newLayout.animStart, newLayout.animEnd, fanCount, totalAnimDuration, eachAnimDuration);
+                useLayout(newLayout);
+                // 预先计算每个图标的变换矩阵
+                for (int i = 0; i < fanCount; i++) {
+                    updateItemMatrix(i);
+                }
+                if (isCacheable) {
+                    layoutCache.put(newLayout);
+                }
+            }
+            prepareAtlas();
+
+            // 给每个图标取出缓动曲线的查找表，用到的曲线只采样一次
+            if (itemEasingTables == null || itemEasingTables.length < fanCount) {
+                itemEasingTables = new FanEasing[fanCount];
+            }
+            for (int i = 0; i < fanCount; i++) {
+                int type = itemEasings != null && i < itemEasings.length ? itemEasings[i] : easing;
+                if (easingTables[type] == null) {
+                    easingTables[type] = new FanEasing(type);
+                }
+                itemEasingTables[i] = easingTables[type];
+            }
+
+            this.animStart = layout.animStart;
+            this.animEnd = layout.animEnd;
+            frameDrawer.setLayout(geometry, fanCount, width, height, iconSizes, animStart, animEnd, eachAnimDuration, itemEasingTables);
+            applyQuality();
+        }
+
+        /**
+         * 按当前档位设置画笔和绘制效果（没有开启自动调整时总是最高质量，下次开启时从最高档开始）
+         */
+        private void applyQuality() {
+            if (!adaptiveQualityEnabled) {
+                qualityController.reset();
+            }
+            // 最高档和原来的画笔一样：抗锯齿加抖动，不开位图过滤
+            defaultPaint.setDither(qualityController.isDitherEnabled());
+            frameDrawer.setSelScale(qualityController.isSelScaleEnabled() ? SEL_SCALE : 1);
+            frameDrawer.setMaxAnimatingItems(qualityController.getMaxAnimatingItems());
+        }
+
+        /**
+         * 动画播放中记录和上一次绘制的间隔（连续的Choreographer帧），超出预算时降低质量，恢复后再提高。
+         * 动画停止后的绘制（比如滑动选择）间隔取决于触摸事件，不计入
+         */
+        private void trackFrameInterval() {
+            if (!showAnim.isRunning()) {
+                lastDrawNanos = 0;
+                return;
+            }
+            long now = System.nanoTime();
+            long interval = now - lastDrawNanos;
+            boolean isContinuous = lastDrawNanos != 0;
+            lastDrawNanos = now;
+            if (isContinuous && qualityController.onFrame(interval)) {
+                // 档位变了，下一帧按新的质量整体重绘
+                applyQuality();
+                invalidate();
+            }
+        }
 
-            this.eachAnimStartEnd = new AnimStartEnd[fanCount];
+        /**
+         * 切换到某个布局（动画时间表在缓动曲线准备好后再生效）
+         *
+         * @param layout 布局
+         */
+        private void useLayout(FanLayoutCache.Layout layout) {
+            this.layout = layout;
+            this.geometry = layout.geometry;
+            this.itemMatrices = layout.itemMatrices;
+            this.itemBounds = layout.itemBounds;
+        }
 
-            // 计算扇形半径
-            calFanRadius(containerRect.width(), containerRect.height(), touchPoint, menuBitmaps[0].getHeight() / 2);
-            // 计算每个扇形分到的角度
-            calFanAngle(fanRadius, containerRect.width(), menuBitmaps[fanCount - 1].getHeight() / 2);
+        private static float quantizeTouch(float touch) {
+            return (int) (touch / LAYER_TOUCH_BUCKET) * LAYER_TOUCH_BUCKET + LAYER_TOUCH_BUCKET / 2;
+        }
 
-            // 每个动画的时间偏移
-            int offset = fanCount > 1 ? (totalAnimDuration - eachAnimDuration) / (fanCount - 1) : 0;
+        /**
+         * 动画结束后准备图层：布局和图标都相同时直接复用上次的图层，否则重新绘制
+         */
+        private void prepareLayer() {
+            if (!layerCacheEnabled || isPlayingAnim || animStart == null || iconIds == null) {
+                return;
+            }
             for (int i = 0; i < fanCount; i++) {
-                // 计算每个动画的开始和结束时间
-                eachAnimStartEnd[i] = new AnimStartEnd(i * offset, i * offset + eachAnimDuration);
+                if (menuBitmaps[i] == null) {
+                    // 还有图标没解码好，等解码完成后再准备
+                    return;
+                }
+            }
+
+            int width = containerRect.width();
+            int height = containerRect.height();
+            float layoutX = quantizeTouch(touchPoint.x);
+            float layoutY = quantizeTouch(touchPoint.y);
+            if (!fanLayer.matches(width, height, layoutX, layoutY, iconIds, iconSize)) {
+                // 图层只需要覆盖所有图标所在的区域
+                dirtyRect.setEmpty();
+                for (int i = 0; i < fanCount; i++) {
+                    unionItemBounds(i, 1);
+                }
+                dirtyRect.intersect(0, 0, width, height);
+                if (dirtyRect.isEmpty()) {
+                    return;
+                }
+
+                Canvas layerCanvas = fanLayer.begin(dirtyRect);
+                for (int i = 0; i < fanCount; i++) {
+                    drawMatrix.set(itemMatrices[i]);
+                    drawMatrix.postTranslate(-dirtyRect.left, -dirtyRect.top);
+                    layerCanvas.drawBitmap(menuBitmaps[i], drawMatrix, fanPaint);
+                }
+                fanLayer.end(width, height, layoutX, layoutY, iconIds, iconSize);
             }
+            Bitmap layerBitmap = fanLayer.getBitmap();
+            frameDrawer.setLayerBounds(fanLayer.getLeft(), fanLayer.getTop(), fanLayer.getLeft() + layerBitmap.getWidth(), fanLayer.getTop() + layerBitmap.getHeight());
+            isLayerReady = true;
+        }
+
+        /**
+         * 准备图集：图标相同时直接复用上次的图集，否则等所有图标解码完后重新拼接
+         */
+        private void prepareAtlas() {
+            if (!atlasEnabled || adapter != null || isAtlasReady || iconIds == null) {
+                return;
+            }
+            if (iconAtlas != null && iconAtlas.matches(iconIds, iconSize)) {
+                isAtlasReady = true;
+                return;
+            }
+            iconAtlas = resourceStore.getAtlas(iconIds, iconSize);
+            if (iconAtlas != null) {
+                isAtlasReady = true;
+                return;
+            }
+            for (int i = 0; i < fanCount; i++) {
+                if (menuBitmaps[i] == null) {
+                    // 还有图标没解码好，等解码完成后再拼接
+                    return;
+                }
+            }
+            // 共享的图集可能正被其他容器绘制，不能在原来的图集上修改，总是生成新的
+            FanIconAtlas atlas = new FanIconAtlas();
+            isAtlasReady = atlas.build(menuBitmaps, fanCount, iconIds, iconSize);
+            if (isAtlasReady) {
+                iconAtlas = atlas;
+                resourceStore.putAtlas(atlas);
+                invalidate();
+            }
+        }
+
+        /**
+         * 计算图标完全展开后的变换矩阵和屏幕区域，图标中心落在扇形上且保持正向
+         *
+         * @param index 扇形序号
+         */
+        private void updateItemMatrix(int index) {
+            Bitmap bitmap = menuBitmaps[index];
+            float centerX = geometry.getCenterX(index);
+            float centerY = geometry.getCenterY(index);
+            // 按放大后的尺寸记录区域，选中和未选中都能覆盖到
+            int maxSize = iconSizes[index];
+            if (bitmap != null) {
+                maxSize = Math.max(maxSize, Math.max(bitmap.getWidth(), bitmap.getHeight()));
+            }
+            float halfSize = maxSize / 2f * SEL_SCALE;
+            itemBounds[index].set(centerX - halfSize, centerY - halfSize, centerX + halfSize, centerY + halfSize);
+
+            layout.hasMatrix[index] = bitmap != null;
+            if (bitmap == null) {
+                // 占位圆直接按中心绘制，不需要矩阵
+                return;
+            }
+            itemMatrices[index].setTranslate(centerX - bitmap.getWidth() / 2f, centerY - bitmap.getHeight() / 2f);
         }
 
         private void checkIsOk() {
@@ -451,39 +1539,45 @@ public class FanMenu {
                 }
                 case MotionEvent.ACTION_MOVE: {
                     // 处理异常情况
-                    if (containerRect == null || fanAngle <= 0 || menuBitmaps == null || menuBitmaps.length <= 0 || selFanIndex >= menuBitmaps.length || fanRadius <= 0) {
+                    if (containerRect == null || geometry.getCount() != fanCount || fanCount <= 0) {
                         return true;
                     }
 
-                    // 保存上次的选择，减少UI刷新次数
+                    // 保存这一批事件之前的选择，减少UI刷新次数
                     int lastSelIndex = selFanIndex;
 
-                    // 获取触摸点坐标（坐标原点在右下角，为了方便计算）
-                    PointF touchPoint = new PointF(containerRect.width() - event.getX(), containerRect.height() - event.getY());
-                    // 根据角度确定选中菜单的序号
-                    int touchAngle = (int) Math.toDegrees(Math.atan(touchPoint.x / touchPoint.y));
-                    selFanIndex = touchAngle / fanAngle;
-
-                    // 根据距离来确定是否选中对应序号的菜单
-                    float touchRange = touchPoint.length();
-                    float bitmapRadius = menuBitmaps[selFanIndex].getHeight() / 2;
-                    if (touchRange < fanRadius - bitmapRadius || touchRange > fanRadius + bitmapRadius) {
-                        selFanIndex = -1;
+                    // 根据角度和距离确定选中菜单的序号
+                    if (metricsListener != null) {
+                        long startNanos = System.nanoTime();
+                        trackSelection(event);
+                        metricsListener.onHitTest(System.nanoTime() - startNanos);
+                    } else {
+                        trackSelection(event);
                     }
 
                     if (lastSelIndex != selFanIndex) {
-                        // 如果和上次选中的不一样，那么刷新UI
-                        invalidate();
+                        // 中途经过的图标没有被画成选中状态，只需要刷新这一批前后选中的两个图标
+                        invalidateSelection(lastSelIndex, selFanIndex);
                     }
                     break;
                 }
                 case MotionEvent.ACTION_CANCEL:
                 case MotionEvent.ACTION_UP: {
+                    if (selectionPredictor != null) {
+                        selectionPredictor.endGesture();
+                        // 以真实位置的选中结果为准
+                        if (selFanIndex != realSelIndex) {
+                            int lastSelIndex = selFanIndex;
+                            selFanIndex = realSelIndex;
+                            invalidateSelection(lastSelIndex, selFanIndex);
+                        }
+                    }
                     if (onFanSelectedListener != null) {
-                        onFanSelectedListener.onFanSelected(selFanIndex);
+                        onFanSelectedListener.onFanSelected(toPosition(selFanIndex));
                     }
 
-                    if (showAnim != null) {
+                    if (!dismissAnimEnabled) {
+                        // 不播放关闭动画时直接结束入场动画
                         showAnim.end();
                     }
                     break;
@@ -493,78 +1587,271 @@ public class FanMenu {
             return true;
         }
 
+        /**
+         * 按时间顺序检测一个MOVE事件中合并的所有历史采样点，经过的每个图标都会回调一次
+         *
+         * @param event MOVE事件
+         */
+        private void trackSelection(MotionEvent event) {
+            int historySize = event.getHistorySize();
+            for (int i = 0; i <= historySize; i++) {
+                float x = i < historySize ? event.getHistoricalX(i) : event.getX();
+                float y = i < historySize ? event.getHistoricalY(i) : event.getY();
+                if (adapter != null && trackDial(x, y)) {
+                    // 转盘在所有圆环内侧，不会选中任何扇形
+                    realSelIndex = -1;
+                    if (selFanIndex != -1) {
+                        int lastSelIndex = selFanIndex;
+                        selFanIndex = -1;
+                        if (onFanHoverListener != null) {
+                            onFanHoverListener.onFanHover(toPosition(lastSelIndex), -1);
+                        }
+                    }
+                    continue;
+                }
+                int index = geometry.hitTest(x, y);
+                realSelIndex = index;
+                if (selectionPredictor != null) {
+                    // 高亮手指正在接近的扇形
+                    index = selectionPredictor.predict(geometry, x, y, i < historySize ? event.getHistoricalEventTime(i) : event.getEventTime(), index);
+                }
+                if (index != selFanIndex) {
+                    int lastSelIndex = selFanIndex;
+                    selFanIndex = index;
+                    if (onFanHoverListener != null) {
+                        onFanHoverListener.onFanHover(toPosition(lastSelIndex), toPosition(index));
+                    }
+                }
+            }
+        }
+
         @Override
         protected void onDraw(Canvas canvas) {
-            // 如果这时动画还没准备好，就先不绘制
-            if (eachAnimStartEnd == null) {
+            if (adaptiveQualityEnabled && animStart != null) {
+                trackFrameInterval();
+            }
+            if (metricsListener == null) {
+                drawFan(canvas);
                 return;
             }
 
-            canvas.save();
-            // 将坐标调整到右下角，并旋转
-            canvas.translate(containerRect.width(), containerRect.height());
-            canvas.rotate(180);
+            long startNanos = System.nanoTime();
+            boolean isShowLatencyReady = drawFan(canvas);
+            metricsListener.onFrameDrawn(System.nanoTime() - startNanos, isPlayingAnim);
+            if (isShowLatencyReady) {
+                metricsListener.onShowLatency(lastShowLatency);
+            }
+        }
 
-            // 绘制扇形菜单
-            for (int i = 0; i < fanCount; i++) {
-                if (curTime < eachAnimStartEnd[i].start) {
-                    // 如果这个动画还没开始那么之后的也没开始
-                    break;
-                }
+        /**
+         * 绘制扇形菜单
+         *
+         * @param canvas 画布
+         * @return 是否是弹出后的第一帧（刚统计出从按下到第一帧的耗时）
+         */
+        private boolean drawFan(Canvas canvas) {
+            // 如果这时动画还没准备好，就先不绘制
+            if (animStart == null) {
+                return false;
+            }
 
-                float eachAnimProgress;
-                if (curTime >= eachAnimStartEnd[i].end) {
-                    // 当前动画结束
-                    eachAnimProgress = 1f;
-                } else {
-                    // 计算当前动画的进度
-                    eachAnimProgress = Math.min((curTime - eachAnimStartEnd[i].start) * 1.0f / eachAnimDuration, 1);
-                }
+            boolean isFirstDraw = isWaitingFirstDraw;
+            if (isWaitingFirstDraw) {
+                isWaitingFirstDraw = false;
+                lastShowLatency = SystemClock.uptimeMillis() - touchDownTime;
+            }
+
+            // 动画播放时不放大选中的图标
+            canvasRenderer.canvas = canvas;
+            frameDrawer.draw(canvasRenderer, curTime, isPlayingAnim ? -1 : selFanIndex, isLayerReady, isAtlasReady);
+            canvasRenderer.canvas = null;
+            return isFirstDraw;
+        }
 
-                // 转动坐标
-                if (i == 0) {
-                    canvas.rotate(-fanAngle / 2);
+        @Override
+        public int getIconWidth(int index) {
+            if (isAtlasReady) {
+                return iconAtlas.getSrcRect(index).width();
+            }
+            return menuBitmaps[index] != null ? menuBitmaps[index].getWidth() : 0;
+        }
+
+        @Override
+        public int getIconHeight(int index) {
+            if (isAtlasReady) {
+                return iconAtlas.getSrcRect(index).height();
+            }
+            return menuBitmaps[index] != null ? menuBitmaps[index].getHeight() : 0;
+        }
+
+        /**
+         * 把每一帧的绘制转成画布调用
+         */
+        private class CanvasRenderer implements FanRenderer {
+            private Canvas canvas;
+            private Bitmap bitmap;
+            private int boundBitmap;
+
+            @Override
+            public void bindBitmap(int bitmap) {
+                this.boundBitmap = bitmap;
+                if (bitmap == BITMAP_LAYER) {
+                    this.bitmap = fanLayer.getBitmap();
+                } else if (bitmap == BITMAP_ATLAS) {
+                    this.bitmap = iconAtlas.getBitmap();
                 } else {
-                    canvas.rotate(-fanAngle);
+                    this.bitmap = menuBitmaps[bitmap];
                 }
-                canvas.save();
-                // 逐渐放大的动画
-                canvas.scale(eachAnimProgress, eachAnimProgress);
-                // 将坐标移至绘画点，并转回正常方向，便于绘制位图
-                canvas.translate(0, fanRadius);
-                canvas.rotate(-(180 - fanAngle * i - fanAngle / 2));
-                if (!isPlayingAnim && i == selFanIndex) {
-                    // 放大选中的图标
-                    canvas.scale(1.2f, 1.2f);
+            }
+
+            @Override
+            public void drawBitmap(int index, float left, float top, float right, float bottom) {
+                if (boundBitmap == BITMAP_LAYER) {
+                    // 图层不缩放，按原样绘制
+                    canvas.drawBitmap(bitmap, left, top, null);
+                    return;
                 }
+                drawRect.set(left, top, right, bottom);
+                canvas.drawBitmap(bitmap, boundBitmap == BITMAP_ATLAS ? iconAtlas.getSrcRect(index) : null, drawRect, fanPaint);
+            }
+
+            @Override
+            public void drawPlaceholder(float centerX, float centerY, float radius) {
+                canvas.drawCircle(centerX, centerY, radius, placeholderPaint);
+            }
+        }
 
-                canvas.drawBitmap(menuBitmaps[i], -menuBitmaps[i].getWidth() / 2, -menuBitmaps[i].getHeight() / 2, fanPaint);
-                canvas.restore();
+        /**
+         * 后台解码完成后替换占位圆（不重新播放动画）
+         */
+        private class IconLoadedCallback implements FanIconLoader.Callback {
+            private final int generation;
+            private final int index;
+            // 使用数据源时解码的菜单项序号，用来判断这个扇形是否已经滚走
+            private final int position;
+
+            IconLoadedCallback(int generation, int index) {
+                this(generation, index, -1);
             }
 
-            canvas.restore();
+            IconLoadedCallback(int generation, int index, int position) {
+                this.generation = generation;
+                this.index = index;
+                this.position = position;
+            }
+
+            @Override
+            public void onIconLoaded(int resId, Bitmap bitmap, long decodeNanos) {
+                if (metricsListener != null && decodeNanos > 0) {
+                    metricsListener.onIconDecoded(decodeNanos, true);
+                }
+                // 菜单已经换了一批图标，丢弃这次结果
+                if (generation != loadGeneration || bitmap == null || index >= fanCount
+                        || (position >= 0 && (adapter == null || toPosition(index) != position || menuBitmaps[index] != null))) {
+                    if (position >= 0 && bitmap != null) {
+                        // 数据源的位图不在缓存中，没用上就放回位图池
+                        FanIconCache.getInstance().recycleIcon(bitmap);
+                    }
+                    return;
+                }
+                menuBitmaps[index] = bitmap;
+                if (geometry.getCount() == fanCount && animStart != null) {
+                    // 已经布局过，补算这个图标的矩阵，只刷新这个图标
+                    updateItemMatrix(index);
+                    invalidateSelection(-1, index);
+                    prepareAtlas();
+                    prepareLayer();
+                } else {
+                    invalidate();
+                }
+            }
         }
     }
 
-    private static class AnimStartEnd {
-        float start;
-        float end;
+    /**
+     * 完全展开后的扇形图层，记录生成时的布局参数，参数相同时可以复用
+     */
+    private static class FanLayer {
+        private Bitmap bitmap;
+        private final Canvas canvas = new Canvas();
+        private int left;
+        private int top;
+
+        private int containerWidth;
+        private int containerHeight;
+        private float touchX;
+        private float touchY;
+        private int[] iconIds;
+        private int iconSize;
+
+        boolean matches(int containerWidth, int containerHeight, float touchX, float touchY, int[] iconIds, int iconSize) {
+            return bitmap != null && this.containerWidth == containerWidth && this.containerHeight == containerHeight
+                    && this.touchX == touchX && this.touchY == touchY && this.iconSize == iconSize && Arrays.equals(this.iconIds, iconIds);
+        }
 
-        AnimStartEnd(float start, float end) {
-            this.start = start;
-            this.end = end;
+        /**
+         * 开始绘制图层
+         *
+         * @param bounds 图层在容器中的区域
+         * @return 绘制用的画布（坐标原点为图层左上角）
+         */
+        Canvas begin(Rect bounds) {
+            if (bitmap == null || bitmap.getWidth() != bounds.width() || bitmap.getHeight() != bounds.height()) {
+                bitmap = Bitmap.createBitmap(bounds.width(), bounds.height(), Bitmap.Config.ARGB_8888);
+            } else {
+                bitmap.eraseColor(0);
+            }
+            left = bounds.left;
+            top = bounds.top;
+            // 绘制期间布局参数无效
+            iconIds = null;
+            canvas.setBitmap(bitmap);
+            return canvas;
         }
 
-        @Override
-        public String toString() {
-            return "AnimStartEnd{" +
-                    "start=" + start +
-                    ", end=" + end +
-                    '}';
+        void end(int containerWidth, int containerHeight, float touchX, float touchY, int[] iconIds, int iconSize) {
+            canvas.setBitmap(null);
+            this.containerWidth = containerWidth;
+            this.containerHeight = containerHeight;
+            this.touchX = touchX;
+            this.touchY = touchY;
+            this.iconIds = iconIds.clone();
+            this.iconSize = iconSize;
+        }
+
+        Bitmap getBitmap() {
+            return bitmap;
+        }
+
+        /**
+         * 释放图层位图，下次使用时重新绘制
+         */
+        void release() {
+            bitmap = null;
+            iconIds = null;
+        }
+
+        int getLeft() {
+            return left;
+        }
+
+        int getTop() {
+            return top;
         }
     }
 
     public interface OnFanSelectedListener {
         void onFanSelected(int selIndex);
     }
+
+    /**
+     * 手指滑过扇形时的回调，快速滑动时经过的每个图标都会按顺序回调
+     */
+    public interface OnFanHoverListener {
+        /**
+         * @param lastSelIndex 之前选中的序号，没有选中为-1
+         * @param selIndex     现在选中的序号，没有选中为-1
+         */
+        void onFanHover(int lastSelIndex, int selIndex);
+    }
 }
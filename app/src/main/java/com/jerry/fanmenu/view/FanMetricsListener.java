@@ -0,0 +1,54 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 扇形菜单的性能数据回调（都在主线程回调）
+ * <p>
+ * 没有设置监听时不会做任何计时
+ */
+public interface FanMetricsListener {
+    /**
+     * 从按下到菜单第一帧的耗时
+     *
+     * @param latencyMillis 耗时（毫秒）
+     */
+    void onShowLatency(long latencyMillis);
+
+    /**
+     * 每一帧onDraw的耗时
+     *
+     * @param drawNanos     耗时（纳秒）
+     * @param isPlayingAnim 是否在播放入场动画
+     */
+    void onFrameDrawn(long drawNanos, boolean isPlayingAnim);
+
+    /**
+     * 入场动画播放完毕
+     *
+     * @param frameCount      动画的总帧数
+     * @param overBudgetCount 帧间隔超出预算的帧数
+     */
+    void onShowAnimEnd(int frameCount, int overBudgetCount);
+
+    /**
+     * 一次图标解码完成
+     *
+     * @param decodeNanos 耗时（纳秒）
+     * @param isAsync     是否在后台解码
+     */
+    void onIconDecoded(long decodeNanos, boolean isAsync);
+
+    /**
+     * 一次弹出菜单时的图标缓存命中情况
+     *
+     * @param hitCount  命中个数
+     * @param missCount 未命中个数
+     */
+    void onIconCacheResult(int hitCount, int missCount);
+
+    /**
+     * 一次MOVE事件（包括其中合并的历史采样点）的命中检测耗时
+     *
+     * @param hitTestNanos 耗时（纳秒）
+     */
+    void onHitTest(long hitTestNanos);
+}
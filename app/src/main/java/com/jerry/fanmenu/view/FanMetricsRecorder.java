@@ -0,0 +1,111 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 把扇形菜单的性能数据汇总到直方图中，方便统计百分位数
+ */
+public class FanMetricsRecorder implements FanMetricsListener {
+    // 从按下到第一帧的耗时（毫秒）
+    private final FanLatencyHistogram showLatency = new FanLatencyHistogram();
+    // 每帧onDraw的耗时（纳秒）
+    private final FanLatencyHistogram drawTime = new FanLatencyHistogram();
+    // 图标解码耗时（纳秒）
+    private final FanLatencyHistogram decodeTime = new FanLatencyHistogram();
+    // 每次命中检测的耗时（纳秒）
+    private final FanLatencyHistogram hitTestTime = new FanLatencyHistogram();
+
+    private long animFrameCount;
+    private long overBudgetFrameCount;
+    private long iconCacheHitCount;
+    private long iconCacheMissCount;
+
+    @Override
+    public void onShowLatency(long latencyMillis) {
+        showLatency.record(latencyMillis);
+    }
+
+    @Override
+    public void onFrameDrawn(long drawNanos, boolean isPlayingAnim) {
+        drawTime.record(drawNanos);
+    }
+
+    @Override
+    public void onShowAnimEnd(int frameCount, int overBudgetCount) {
+        animFrameCount += frameCount;
+        overBudgetFrameCount += overBudgetCount;
+    }
+
+    @Override
+    public void onIconDecoded(long decodeNanos, boolean isAsync) {
+        decodeTime.record(decodeNanos);
+    }
+
+    @Override
+    public void onIconCacheResult(int hitCount, int missCount) {
+        iconCacheHitCount += hitCount;
+        iconCacheMissCount += missCount;
+    }
+
+    @Override
+    public void onHitTest(long hitTestNanos) {
+        hitTestTime.record(hitTestNanos);
+    }
+
+    public FanLatencyHistogram getShowLatency() {
+        return showLatency;
+    }
+
+    public FanLatencyHistogram getDrawTime() {
+        return drawTime;
+    }
+
+    public FanLatencyHistogram getDecodeTime() {
+        return decodeTime;
+    }
+
+    public FanLatencyHistogram getHitTestTime() {
+        return hitTestTime;
+    }
+
+    public long getAnimFrameCount() {
+        return animFrameCount;
+    }
+
+    public long getOverBudgetFrameCount() {
+        return overBudgetFrameCount;
+    }
+
+    /**
+     * @return 图标缓存命中率（0~1），还没有数据时返回0
+     */
+    public float getIconCacheHitRate() {
+        long total = iconCacheHitCount + iconCacheMissCount;
+        return total == 0 ? 0 : iconCacheHitCount * 1f / total;
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        showLatency.reset();
+        drawTime.reset();
+        decodeTime.reset();
+        hitTestTime.reset();
+        animFrameCount = 0;
+        overBudgetFrameCount = 0;
+        iconCacheHitCount = 0;
+        iconCacheMissCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FanMetricsRecorder{" +
+                "showLatencyMs=" + showLatency +
+                ", drawTimeNs=" + drawTime +
+                ", decodeTimeNs=" + decodeTime +
+                ", hitTestTimeNs=" + hitTestTime +
+                ", animFrames=" + animFrameCount +
+                ", overBudgetFrames=" + overBudgetFrameCount +
+                ", iconCacheHitRate=" + getIconCacheHitRate() +
+                '}';
+    }
+}
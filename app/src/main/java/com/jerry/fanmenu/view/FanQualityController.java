@@ -0,0 +1,115 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 按最近的帧间隔自动调整绘制质量（纯Java实现，不依赖Android）
+ * <p>
+ * 最近几帧中有多帧超出预算时降一档，连续很多帧都很快时再升一档，档位跨多次弹出保留。
+ * 从高到低依次关闭：抖动、选中图标放大、所有图标同时动画
+ */
+final class FanQualityController {
+    // 全部效果
+    static final int LEVEL_FULL = 0;
+    // 关闭抖动
+    static final int LEVEL_NO_DITHER = 1;
+    // 选中图标不再放大
+    static final int LEVEL_NO_SEL_SCALE = 2;
+    // 限制同时动画的图标个数
+    static final int LEVEL_LIMIT_ANIM = 3;
+
+    // 最低档时最多同时动画的图标个数
+    static final int LIMITED_ANIMATING_ITEMS = 2;
+    // 观察的最近帧数
+    private static final int WINDOW_SIZE = 8;
+    // 最近帧中超出预算达到这个数就降一档
+    private static final int OVER_BUDGET_TO_STEP_DOWN = 3;
+    // 连续这么多帧都低于恢复阈值就升一档
+    private static final int FAST_FRAMES_TO_STEP_UP = 60;
+    // 恢复阈值占预算的比例
+    private static final float RECOVER_RATIO = 0.6f;
+
+    private final long budgetNanos;
+    private final long recoverNanos;
+    // 最近每一帧是否超出预算（环形）
+    private final boolean[] window = new boolean[WINDOW_SIZE];
+    private int windowPos;
+    private int overBudgetCount;
+    // 连续低于恢复阈值的帧数
+    private int fastFrameCount;
+    private int level = LEVEL_FULL;
+
+    /**
+     * @param budgetMillis 帧间隔预算（毫秒）
+     */
+    FanQualityController(float budgetMillis) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Invalid budgetMillis " + budgetMillis);
+        }
+        this.budgetNanos = (long) (budgetMillis * 1000000);
+        this.recoverNanos = (long) (budgetNanos * RECOVER_RATIO);
+    }
+
+    /**
+     * 记录一帧
+     *
+     * @param frameNanos 和上一帧的间隔（纳秒）
+     * @return 档位是否发生变化
+     */
+    boolean onFrame(long frameNanos) {
+        boolean isOverBudget = frameNanos > budgetNanos;
+        if (window[windowPos] != isOverBudget) {
+            overBudgetCount += isOverBudget ? 1 : -1;
+            window[windowPos] = isOverBudget;
+        }
+        windowPos = (windowPos + 1) % WINDOW_SIZE;
+        fastFrameCount = frameNanos < recoverNanos ? fastFrameCount + 1 : 0;
+
+        if (overBudgetCount >= OVER_BUDGET_TO_STEP_DOWN && level < LEVEL_LIMIT_ANIM) {
+            level++;
+            clearWindow();
+            return true;
+        }
+        if (fastFrameCount >= FAST_FRAMES_TO_STEP_UP && level > LEVEL_FULL) {
+            level--;
+            clearWindow();
+            return true;
+        }
+        return false;
+    }
+
+    private void clearWindow() {
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            window[i] = false;
+        }
+        overBudgetCount = 0;
+        fastFrameCount = 0;
+    }
+
+    /**
+     * 回到最高档并清空记录
+     */
+    void reset() {
+        clearWindow();
+        level = LEVEL_FULL;
+    }
+
+    /**
+     * @return 是否开启抖动
+     */
+    boolean isDitherEnabled() {
+        return level < LEVEL_NO_DITHER;
+    }
+
+    /**
+     * @return 是否放大选中的图标
+     */
+    boolean isSelScaleEnabled() {
+        return level < LEVEL_NO_SEL_SCALE;
+    }
+
+    /**
+     * @return 最多同时动画的图标个数（0表示不限制）
+     */
+    int getMaxAnimatingItems() {
+        return level >= LEVEL_LIMIT_ANIM ? LIMITED_ANIMATING_ITEMS : 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 扇形菜单每帧的绘制目标（纯Java接口，不依赖Android）
+ * <p>
+ * 扇形视图把它转成Canvas调用，基准测试用记录实现统计每帧的绘制次数和位图切换次数
+ */
+interface FanRenderer {
+    // 完全展开后的扇形图层
+    int BITMAP_LAYER = -1;
+    // 所有图标拼成的图集
+    int BITMAP_ATLAS = -2;
+
+    /**
+     * 切换之后绘制使用的位图（开启硬件加速时相当于切换纹理）
+     *
+     * @param bitmap 图标序号，或者{@link #BITMAP_LAYER}、{@link #BITMAP_ATLAS}
+     */
+    void bindBitmap(int bitmap);
+
+    /**
+     * 把当前位图绘制到目标区域
+     *
+     * @param index  图标序号（当前位图是图集时用来取出图标所在的区域，图层为-1）
+     * @param left   目标区域
+     * @param top    目标区域
+     * @param right  目标区域
+     * @param bottom 目标区域
+     */
+    void drawBitmap(int index, float left, float top, float right, float bottom);
+
+    /**
+     * 绘制图标还没解码好时的占位圆
+     *
+     * @param centerX 圆心
+     * @param centerY 圆心
+     * @param radius  半径
+     */
+    void drawPlaceholder(float centerX, float centerY, float radius);
+}
@@ -0,0 +1,195 @@
+package com.jerry.fanmenu.view;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 扇形菜单的共享资源（进程内共享，线程安全）
+ * <p>
+ * 图标缓存、位图池、布局缓存和图集由所有容器共用，各个菜单自己的图层登记在这里。
+ * 系统内存紧张时（{@link #onTrimMemory(int)}、{@link #onLowMemory()}）按级别依次释放：
+ * 先丢掉位图池并缩小图标缓存，再清空图标缓存、布局缓存和图集，最后释放所有没在显示的菜单的图层
+ */
+public final class FanResourceStore implements ComponentCallbacks2 {
+    // 不释放
+    public static final int TRIM_NONE = 0;
+    // 丢掉位图池，图标缓存缩小一半
+    public static final int TRIM_POOL = 1;
+    // 清空图标缓存、布局缓存和共享的图集
+    public static final int TRIM_CACHES = 2;
+    // 再释放没在显示的菜单的图层和图标
+    public static final int TRIM_ALL = 3;
+
+    // 最多共享的图集个数
+    private static final int MAX_ATLAS_COUNT = 2;
+
+    private static FanResourceStore _Instance;
+
+    private final FanIconCache iconCache = FanIconCache.getInstance();
+    private final FanLayoutCache layoutCache = FanLayoutCache.getInstance();
+    // 共享的图集，最近使用的在最后
+    private final List<FanIconAtlas> atlases = new ArrayList<>();
+    // 登记的菜单（弱引用，容器销毁后自动移除）
+    private final Set<Trimmable> trimmables = Collections.newSetFromMap(new WeakHashMap<Trimmable, Boolean>());
+
+    private FanResourceStore() {
+    }
+
+    /**
+     * 获取进程内共享的资源，第一次调用时注册内存回调
+     *
+     * @param context 上下文（只使用ApplicationContext，不会持有Activity）
+     * @return 共享资源
+     */
+    public static synchronized FanResourceStore getInstance(@NonNull Context context) {
+        if (_Instance == null) {
+            _Instance = new FanResourceStore();
+            context.getApplicationContext().registerComponentCallbacks(_Instance);
+        }
+        return _Instance;
+    }
+
+    /**
+     * 登记需要在内存紧张时释放资源的对象
+     *
+     * @param trimmable 需要释放资源的对象
+     */
+    void register(@NonNull Trimmable trimmable) {
+        synchronized (trimmables) {
+            trimmables.add(trimmable);
+        }
+    }
+
+    void unregister(@NonNull Trimmable trimmable) {
+        synchronized (trimmables) {
+            trimmables.remove(trimmable);
+        }
+    }
+
+    /**
+     * 查找共享的图集
+     *
+     * @param iconIds  图标ID
+     * @param iconSize 图标尺寸
+     * @return 图标和尺寸都相同的图集，没有时返回null
+     */
+    synchronized FanIconAtlas getAtlas(int[] iconIds, int iconSize) {
+        for (int i = atlases.size() - 1; i >= 0; i--) {
+            FanIconAtlas atlas = atlases.get(i);
+            if (atlas.matches(iconIds, iconSize)) {
+                // 移到最后，表示最近使用过
+                atlases.remove(i);
+                atlases.add(atlas);
+                return atlas;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 共享一个已经生成好的图集（放入后不能再修改）
+     *
+     * @param atlas 图集
+     */
+    synchronized void putAtlas(@NonNull FanIconAtlas atlas) {
+        atlases.remove(atlas);
+        atlases.add(atlas);
+        while (atlases.size() > MAX_ATLAS_COUNT) {
+            atlases.remove(0);
+        }
+    }
+
+    /**
+     * 按级别释放资源（{@link #TRIM_ALL}需要在主线程调用）
+     *
+     * @param trimLevel 释放级别（{@link #TRIM_POOL}、{@link #TRIM_CACHES}、{@link #TRIM_ALL}）
+     */
+    public void trim(int trimLevel) {
+        if (trimLevel < TRIM_POOL || trimLevel > TRIM_ALL) {
+            throw new IllegalArgumentException("Invalid trimLevel " + trimLevel);
+        }
+
+        if (trimLevel >= TRIM_CACHES) {
+            iconCache.trim(0);
+            layoutCache.clear();
+            synchronized (this) {
+                atlases.clear();
+            }
+        } else {
+            iconCache.trim(iconCache.getMaxSizeInBytes() / 2);
+        }
+
+        if (trimLevel >= TRIM_ALL) {
+            Trimmable[] copies;
+            synchronized (trimmables) {
+                copies = trimmables.toArray(new Trimmable[trimmables.size()]);
+            }
+            for (Trimmable trimmable : copies) {
+                trimmable.onTrim(trimLevel);
+            }
+        }
+    }
+
+    /**
+     * 把系统的内存级别换算成释放级别
+     *
+     * @param level 系统内存级别
+     * @return 释放级别
+     */
+    static int toTrimLevel(int level) {
+        switch (level) {
+            case TRIM_MEMORY_RUNNING_MODERATE:
+            case TRIM_MEMORY_UI_HIDDEN:
+                // 前台运行或刚退到后台，只丢掉可以随时重建的部分
+                return TRIM_POOL;
+            case TRIM_MEMORY_RUNNING_LOW:
+            case TRIM_MEMORY_BACKGROUND:
+                return TRIM_CACHES;
+            case TRIM_MEMORY_RUNNING_CRITICAL:
+            case TRIM_MEMORY_MODERATE:
+            case TRIM_MEMORY_COMPLETE:
+                return TRIM_ALL;
+            default:
+                // 未知的级别按数值归类
+                if (level >= TRIM_MEMORY_MODERATE) {
+                    return TRIM_ALL;
+                }
+                return level >= TRIM_MEMORY_BACKGROUND ? TRIM_CACHES : TRIM_NONE;
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        int trimLevel = toTrimLevel(level);
+        if (trimLevel != TRIM_NONE) {
+            trim(trimLevel);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim(TRIM_ALL);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    /**
+     * 内存紧张时需要释放资源的对象（在主线程回调）
+     */
+    interface Trimmable {
+        /**
+         * @param trimLevel 释放级别
+         */
+        void onTrim(int trimLevel);
+    }
+}
@@ -0,0 +1,181 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 根据手指滑动速度提前选中即将到达的扇形（纯Java实现，不依赖Android）
+ * <p>
+ * 用指数平滑估计速度，把触摸点沿速度方向外推{@code leadMillis}毫秒后做命中检测。
+ * 滑动方向越稳定置信度越高（平滑速度的大小 / 平滑速率，0~1），低于阈值时不预测。
+ * 预测只影响高亮，抬起手指时仍然以真实位置的选中结果为准
+ */
+public final class FanSelectionPredictor {
+    // 速度平滑的时间常数（毫秒）
+    private static final float SMOOTH_MILLIS = 24f;
+    // 低于这个速率（像素/毫秒）视为手指停住，不预测
+    private static final float MIN_SPEED = 0.1f;
+
+    private final float leadMillis;
+    private final float confidenceThreshold;
+
+    // 上一个采样点
+    private float lastX;
+    private float lastY;
+    private long lastTime;
+    private boolean hasLastSample;
+    // 平滑后的速度和速率
+    private float velocityX;
+    private float velocityY;
+    private float speed;
+
+    // 等待验证的预测：预测的序号和预测时真实选中的序号
+    private int pendingIndex = -1;
+    private int pendingFromIndex = -1;
+
+    private long predictionCount;
+    private long correctCount;
+
+    /**
+     * @param leadMillis          提前预测的时间（毫秒）
+     * @param confidenceThreshold 置信度阈值（0~1），越大越保守
+     */
+    public FanSelectionPredictor(int leadMillis, float confidenceThreshold) {
+        if (leadMillis < 0) {
+            throw new IllegalArgumentException("Invalid number " + leadMillis + " leadMillis must not be negative");
+        }
+        if (confidenceThreshold < 0 || confidenceThreshold > 1) {
+            throw new IllegalArgumentException("Invalid number " + confidenceThreshold + " confidenceThreshold must be in [0, 1]");
+        }
+        this.leadMillis = leadMillis;
+        this.confidenceThreshold = confidenceThreshold;
+    }
+
+    /**
+     * 开始一次新的手势，清空速度（统计数据保留）
+     */
+    void beginGesture() {
+        hasLastSample = false;
+        velocityX = 0;
+        velocityY = 0;
+        speed = 0;
+        pendingIndex = -1;
+        pendingFromIndex = -1;
+    }
+
+    /**
+     * 加入一个采样点并返回应该高亮的序号
+     *
+     * @param geometry  扇形布局
+     * @param x         触摸点横坐标
+     * @param y         触摸点纵坐标
+     * @param time      采样时间（毫秒）
+     * @param realIndex 真实位置命中的序号
+     * @return 预测的序号，没有可信的预测时返回realIndex
+     */
+    int predict(FanGeometry geometry, float x, float y, long time, int realIndex) {
+        verify(realIndex);
+        updateVelocity(x, y, time);
+
+        if (speed < MIN_SPEED || getConfidence() < confidenceThreshold) {
+            return realIndex;
+        }
+        int predictedIndex = geometry.hitTest(x + velocityX * leadMillis, y + velocityY * leadMillis);
+        if (predictedIndex < 0 || predictedIndex == realIndex) {
+            return realIndex;
+        }
+        if (predictedIndex != pendingIndex) {
+            // 新的预测，上一个还没验证的预测算作失败
+            predictionCount++;
+            pendingIndex = predictedIndex;
+            pendingFromIndex = realIndex;
+        }
+        return predictedIndex;
+    }
+
+    /**
+     * 结束手势，还没到达的预测算作失败
+     */
+    void endGesture() {
+        pendingIndex = -1;
+        pendingFromIndex = -1;
+    }
+
+    /**
+     * 用真实位置验证之前的预测：手指到达预测的扇形算作正确，转而到达其他扇形算作错误
+     */
+    private void verify(int realIndex) {
+        if (pendingIndex < 0 || realIndex < 0 || realIndex == pendingFromIndex) {
+            return;
+        }
+        if (realIndex == pendingIndex) {
+            correctCount++;
+        }
+        pendingIndex = -1;
+        pendingFromIndex = -1;
+    }
+
+    private void updateVelocity(float x, float y, long time) {
+        if (hasLastSample) {
+            long deltaTime = time - lastTime;
+            if (deltaTime > 0) {
+                float instantX = (x - lastX) / deltaTime;
+                float instantY = (y - lastY) / deltaTime;
+                float alpha = deltaTime / (deltaTime + SMOOTH_MILLIS);
+                velocityX += (instantX - velocityX) * alpha;
+                velocityY += (instantY - velocityY) * alpha;
+                speed += ((float) Math.sqrt(instantX * instantX + instantY * instantY) - speed) * alpha;
+            }
+        }
+        lastX = x;
+        lastY = y;
+        lastTime = time;
+        hasLastSample = true;
+    }
+
+    /**
+     * @return 当前速度方向的置信度（0~1）
+     */
+    float getConfidence() {
+        if (speed <= 0) {
+            return 0;
+        }
+        return Math.min(1, (float) Math.sqrt(velocityX * velocityX + velocityY * velocityY) / speed);
+    }
+
+    /**
+     * @return 做出的预测次数
+     */
+    public long getPredictionCount() {
+        return predictionCount;
+    }
+
+    /**
+     * @return 手指随后确实到达的预测次数
+     */
+    public long getCorrectCount() {
+        return correctCount;
+    }
+
+    /**
+     * @return 预测正确率（0~1），还没有预测时返回0
+     */
+    public float getAccuracy() {
+        return predictionCount == 0 ? 0 : correctCount * 1f / predictionCount;
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void resetStats() {
+        predictionCount = 0;
+        correctCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FanSelectionPredictor{" +
+                "leadMillis=" + leadMillis +
+                ", confidenceThreshold=" + confidenceThreshold +
+                ", predictions=" + predictionCount +
+                ", correct=" + correctCount +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.jerry.fanmenu.view;
+
+import android.util.Log;
+
+import com.jerry.fanmenu.BuildConfig;
+import com.jerry.fanmenu.Constant;
+
+/**
+ * 触摸事件的环形记录（只在debug包中生效）
+ * <p>
+ * 事件按基本类型存入预先分配的数组，记录时不分配对象也不输出日志，需要时再一次性输出。
+ * release包中{@link #ENABLED}是编译期常量false，调用处的{@code if (FanTouchTrace.ENABLED)}会被编译器直接去掉
+ */
+final class FanTouchTrace {
+    static final boolean ENABLED = BuildConfig.DEBUG;
+
+    // 最多记录的事件个数
+    private static final int CAPACITY = 256;
+
+    private final int[] actions = new int[CAPACITY];
+    private final float[] xs = new float[CAPACITY];
+    private final float[] ys = new float[CAPACITY];
+    private final long[] eventTimes = new long[CAPACITY];
+    private final int[] selIndexes = new int[CAPACITY];
+    // 下一条记录写入的位置
+    private int head;
+    // 已记录的个数
+    private int size;
+
+    /**
+     * 记录一个触摸事件
+     *
+     * @param action    事件类型
+     * @param x         横坐标
+     * @param y         纵坐标
+     * @param eventTime 事件时间（毫秒）
+     * @param selIndex  处理完这个事件后选中的扇形序号，没有选中为-1
+     */
+    void record(int action, float x, float y, long eventTime, int selIndex) {
+        actions[head] = action;
+        xs[head] = x;
+        ys[head] = y;
+        eventTimes[head] = eventTime;
+        selIndexes[head] = selIndex;
+        head = (head + 1) % CAPACITY;
+        if (size < CAPACITY) {
+            size++;
+        }
+    }
+
+    /**
+     * 按时间顺序输出所有记录
+     *
+     * @param tag    日志标签
+     * @param reason 输出原因
+     */
+    void dump(String tag, String reason) {
+        Log.w(tag, "touch trace (" + reason + "), " + size + " events:");
+        int start = (head - size + CAPACITY) % CAPACITY;
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % CAPACITY;
+            int action = actions[index];
+            String actionName = action >= 0 && action < Constant.ACTION_MAP.length ? Constant.ACTION_MAP[action] : String.valueOf(action);
+            Log.w(tag, eventTimes[index] + " " + actionName + " (" + xs[index] + "," + ys[index] + ") sel=" + selIndexes[index]);
+        }
+    }
+}
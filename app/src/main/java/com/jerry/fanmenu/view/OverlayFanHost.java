@@ -0,0 +1,65 @@
+package com.jerry.fanmenu.view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * 在容器的ViewGroupOverlay上绘制扇形视图（无窗口模式）
+ * <p>
+ * 不需要额外的窗口和Surface，扇形直接画在容器的内容之上
+ */
+final class OverlayFanHost implements FanHost {
+    private final ViewGroup container;
+    // 扇形视图是否已经加到容器的Overlay上
+    private boolean isAdded;
+    private int width;
+    private int height;
+
+    OverlayFanHost(@NonNull View container) throws RuntimeException {
+        if (!(container instanceof ViewGroup)) {
+            throw new RuntimeException("Overlay mode needs a ViewGroup container but got " + container.getClass().getName());
+        }
+        this.container = (ViewGroup) container;
+    }
+
+    @Override
+    public View getContainer() {
+        return container;
+    }
+
+    @Override
+    public void show(@NonNull View fanView, int width, int height) {
+        if (!isAdded) {
+            // 如果扇形视图还在别的父容器中，Overlay会先把它移除
+            container.getOverlay().add(fanView);
+            isAdded = true;
+            this.width = 0;
+            this.height = 0;
+        }
+
+        // Overlay中的视图不会被父容器测量和布局，需要手动处理，容器大小没变时跳过
+        if (this.width != width || this.height != height) {
+            this.width = width;
+            this.height = height;
+            fanView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY), View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+            fanView.layout(0, 0, width, height);
+        }
+
+        fanView.setVisibility(View.VISIBLE);
+    }
+
+    @Override
+    public void hide(@NonNull View fanView) {
+        fanView.setVisibility(View.INVISIBLE);
+    }
+
+    @Override
+    public void release(@NonNull View fanView) {
+        if (!isAdded) {
+            return;
+        }
+        container.getOverlay().remove(fanView);
+        isAdded = false;
+    }
+}
@@ -0,0 +1,75 @@
+package com.jerry.fanmenu.view;
+
+import android.graphics.drawable.ColorDrawable;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.PopupWindow;
+
+/**
+ * 用PopupWindow显示扇形视图（窗口模式）
+ * <p>
+ * PopupWindow在同一个容器上一直复用，隐藏时只是隐藏扇形视图
+ */
+final class PopupFanHost implements FanHost {
+    private final View container;
+    private PopupWindow popup;
+
+    PopupFanHost(@NonNull View container) {
+        this.container = container;
+    }
+
+    @Override
+    public View getContainer() {
+        return container;
+    }
+
+    @Override
+    public void show(@NonNull View fanView, int width, int height) {
+        if (popup == null) {
+            popup = new PopupWindow();
+            popup.setAnimationStyle(0);
+            popup.setBackgroundDrawable(new ColorDrawable(0));
+            // 触摸事件由容器转发，PopupWindow一直显示也不会拦截之后的手势
+            popup.setTouchable(false);
+            popup.setFocusable(false);
+            detachFromParent(fanView);
+            fanView.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            popup.setContentView(fanView);
+        }
+
+        popup.setWidth(width);
+        popup.setHeight(height);
+
+        fanView.setVisibility(View.VISIBLE);
+
+        if (!popup.isShowing()) {
+            popup.showAsDropDown(container, 0, -height);
+        } else {
+            // 容器大小没变时也可能滚动或移动了，每次都跟着容器重新定位
+            popup.update(container, 0, -height, width, height);
+        }
+    }
+
+    @Override
+    public void hide(@NonNull View fanView) {
+        // 不关闭PopupWindow，下次弹出时直接复用
+        fanView.setVisibility(View.INVISIBLE);
+    }
+
+    @Override
+    public void release(@NonNull View fanView) {
+        if (popup == null) {
+            return;
+        }
+        popup.dismiss();
+        detachFromParent(fanView);
+        popup = null;
+    }
+
+    private static void detachFromParent(View fanView) {
+        if (fanView.getParent() instanceof ViewGroup) {
+            ((ViewGroup) fanView.getParent()).removeView(fanView);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.jerry.fanmenu.view;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.PointF;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.jerry.fanmenu.BuildConfig;
+import com.jerry.fanmenu.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 扇形菜单一次完整弹出的帧开销报告
+ * <p>
+ * 在暂停的主线程Looper上用Robolectric的时钟逐帧推进，走真实的流程：
+ * FanMenu.show() → startShowAnim → 每帧onDraw → 在展开的扇形上滑动（onTouchEvent） → 抬起并dismiss()播放关闭动画。
+ * 遍历图标个数、动画时长和容器尺寸，记录每帧的CPU时间、每次弹出分配的字节数和从弹出到第一帧绘制完成的耗时，
+ * 结果写成JSON，方便比较不同构建。
+ * <p>
+ * 运行：./gradlew :app:testDebugUnitTest --tests '*FanFrameCostTest' ，结果输出到 app/build/reports/frame-cost/results.json
+ * <p>
+ * 画布和时钟都由Robolectric模拟，数字包含模拟环境本身的开销，只适合在同一环境下比较不同构建
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 25)
+public class FanFrameCostTest {
+    private static final int[] ITEM_COUNTS = {5, 20, 100};
+    // 动画总时长和每个动画时长
+    private static final int[][] DURATIONS = {{300, 100}, {500, 200}, {1000, 400}};
+    private static final int[][] CONTAINER_SIZES = {{720, 1280}, {1080, 1920}, {1600, 2560}};
+    private static final int ICON_SIZE = 144;
+    // 60fps的帧间隔
+    private static final int FRAME_INTERVAL = 16;
+    // 每次弹出后滑动的MOVE事件个数
+    private static final int MOVE_COUNT = 32;
+    private static final int WARMUP_SHOWS = 3;
+    private static final int MEASURED_SHOWS = 10;
+
+    private Activity activity;
+    private ThreadMXBean threadBean;
+    // 不支持统计分配字节数时为空
+    private com.sun.management.ThreadMXBean allocBean;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.setupActivity(Activity.class);
+        // 之后的消息和帧回调都只在推进时钟时执行
+        ShadowLooper.pauseMainLooper();
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_INTERVAL);
+
+        threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            allocBean = (com.sun.management.ThreadMXBean) threadBean;
+            allocBean.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    @Test
+    public void writeFrameCostReport() throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"javaVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"frameIntervalMillis\": ").append(FRAME_INTERVAL).append(",\n");
+        json.append("  \"moveCount\": ").append(MOVE_COUNT).append(",\n");
+        json.append("  \"measuredShows\": ").append(MEASURED_SHOWS).append(",\n");
+        json.append("  \"results\": [");
+
+        System.out.println(String.format("%6s %11s %10s %7s %12s %12s %12s %12s", "items", "duration", "container",
+                "frames", "cpuNs/frame", "p99Ns/frame", "allocB/show", "firstFrameNs"));
+        boolean isFirst = true;
+        for (int itemCount : ITEM_COUNTS) {
+            for (int[] duration : DURATIONS) {
+                for (int[] containerSize : CONTAINER_SIZES) {
+                    ShowCycle cycle = new ShowCycle(itemCount, duration[0], duration[1], containerSize[0], containerSize[1]);
+                    for (int i = 0; i < WARMUP_SHOWS; i++) {
+                        cycle.play(false);
+                    }
+                    for (int i = 0; i < MEASURED_SHOWS; i++) {
+                        cycle.play(true);
+                    }
+                    cycle.release();
+
+                    assertEquals(MEASURED_SHOWS, cycle.firstFrameNanos.getCount());
+                    assertTrue("No frame was drawn", cycle.frameCpuNanos.getCount() > MEASURED_SHOWS);
+                    long framesPerShow = cycle.frameCpuNanos.getCount() / MEASURED_SHOWS;
+                    long cpuNanosPerFrame = (long) cycle.frameCpuNanos.getMean();
+                    long allocBytesPerShow = allocBean != null ? cycle.allocBytes / MEASURED_SHOWS : -1;
+                    System.out.println(String.format("%6d %5d/%-5d %4dx%-5d %7d %12d %12d %12d %12d", itemCount, duration[0], duration[1],
+                            containerSize[0], containerSize[1], framesPerShow, cpuNanosPerFrame,
+                            cycle.frameCpuNanos.getPercentile(99), allocBytesPerShow, cycle.firstFrameNanos.getPercentile(50)));
+
+                    json.append(isFirst ? "\n" : ",\n");
+                    isFirst = false;
+                    json.append("    {");
+                    appendField(json, "itemCount", itemCount).append(", ");
+                    appendField(json, "totalAnimDuration", duration[0]).append(", ");
+                    appendField(json, "eachAnimDuration", duration[1]).append(", ");
+                    appendField(json, "containerWidth", containerSize[0]).append(", ");
+                    appendField(json, "containerHeight", containerSize[1]).append(", ");
+                    appendField(json, "framesPerShow", framesPerShow).append(", ");
+                    appendField(json, "cpuNanosPerFrame", cpuNanosPerFrame).append(", ");
+                    appendField(json, "cpuNanosP50", cycle.frameCpuNanos.getPercentile(50)).append(", ");
+                    appendField(json, "cpuNanosP99", cycle.frameCpuNanos.getPercentile(99)).append(", ");
+                    appendField(json, "cpuNanosMax", cycle.frameCpuNanos.getMax()).append(", ");
+                    appendField(json, "allocBytesPerShow", allocBytesPerShow).append(", ");
+                    appendField(json, "firstFrameNanosP50", cycle.firstFrameNanos.getPercentile(50)).append(", ");
+                    appendField(json, "firstFrameNanosP99", cycle.firstFrameNanos.getPercentile(99));
+                    json.append("}");
+                }
+            }
+        }
+        json.append("\n  ]\n}\n");
+
+        File output = new File(System.getProperty("fan.frameCost.output", "build/reports/frame-cost/results.json"));
+        File dir = output.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(output), "UTF-8");
+        try {
+            writer.write(json.toString());
+        } finally {
+            writer.close();
+        }
+        System.out.println("Report written to " + output.getAbsolutePath());
+    }
+
+    private static StringBuilder appendField(StringBuilder json, String name, long value) {
+        return json.append('"').append(name).append("\": ").append(value);
+    }
+
+    private long getAllocatedBytes() {
+        return allocBean != null ? allocBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * 一种参数组合下的反复弹出，每个场景一个容器和一个FanMenu，和FanContainerLinearLayout一样在多次弹出之间复用
+     */
+    private final class ShowCycle {
+        private final int totalAnimDuration;
+        private final int eachAnimDuration;
+        private final int[] menuDrawableIds;
+        private final PointF touchPoint;
+        private final FanContainerLinearLayout container;
+        private final FanMenu fanMenu = FanMenu.create();
+        private final Canvas canvas;
+        private final float[] moveX = new float[MOVE_COUNT];
+        private final float[] moveY = new float[MOVE_COUNT];
+
+        // 每帧的CPU时间和从弹出到第一帧绘制完成的耗时（纳秒）
+        final FanLatencyHistogram frameCpuNanos = new FanLatencyHistogram();
+        final FanLatencyHistogram firstFrameNanos = new FanLatencyHistogram();
+        long allocBytes;
+
+        ShowCycle(int itemCount, int totalAnimDuration, int eachAnimDuration, int width, int height) {
+            this.totalAnimDuration = totalAnimDuration;
+            this.eachAnimDuration = eachAnimDuration;
+            menuDrawableIds = new int[itemCount];
+            Arrays.fill(menuDrawableIds, R.mipmap.ic_launcher_round);
+            touchPoint = new PointF(width * 0.5f, height * 0.5f);
+
+            container = new FanContainerLinearLayout(activity);
+            activity.setContentView(container, new ViewGroup.LayoutParams(width, height));
+            container.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY), View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+            container.layout(0, 0, width, height);
+            canvas = new Canvas(Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+
+            // 沿第0环的弧线从头滑到尾
+            int[] iconSizes = new int[itemCount];
+            Arrays.fill(iconSizes, ICON_SIZE);
+            FanGeometry geometry = new FanGeometry();
+            geometry.layout(width, height, touchPoint.x, touchPoint.y, iconSizes, itemCount);
+            float radius = geometry.getRingRadius(0);
+            float startAngle = geometry.getRingStartAngle(0);
+            float sweepAngle = geometry.getRingEndAngle(0) - startAngle;
+            for (int i = 0; i < MOVE_COUNT; i++) {
+                double angle = Math.toRadians(startAngle + sweepAngle * (i + 0.5f) / MOVE_COUNT);
+                moveX[i] = width - (float) (radius * Math.sin(angle));
+                moveY[i] = height - (float) (radius * Math.cos(angle));
+            }
+        }
+
+        /**
+         * 弹出、入场动画、滑动、抬起后播放关闭动画
+         *
+         * @param isMeasured 是否记录这一次的数据（预热时不记录）
+         */
+        void play(boolean isMeasured) {
+            long allocStart = getAllocatedBytes();
+            long showStart = System.nanoTime();
+            fanMenu.resetParam().setTouchPoint(touchPoint).setMenuDrawableIds(menuDrawableIds).setIconSize(ICON_SIZE)
+                    .setTotalAnimDuration(totalAnimDuration).setEachAnimDuration(eachAnimDuration)
+                    .setHostMode(FanMenu.HOST_OVERLAY).setDismissAnimEnabled(true).show(activity, container);
+            // 入场动画由post开始，推进一帧后画出第一帧
+            nextFrame(isMeasured);
+            if (isMeasured) {
+                firstFrameNanos.record(System.nanoTime() - showStart);
+            }
+            int animFrameCount = totalAnimDuration / FRAME_INTERVAL + 1;
+            for (int i = 0; i < animFrameCount; i++) {
+                nextFrame(isMeasured);
+            }
+
+            long downTime = SystemClock.uptimeMillis();
+            for (int i = 0; i < MOVE_COUNT; i++) {
+                MotionEvent move = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_MOVE, moveX[i], moveY[i], 0);
+                fanMenu.onTouchEvent(move);
+                move.recycle();
+                nextFrame(isMeasured);
+            }
+            MotionEvent up = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_UP, moveX[MOVE_COUNT - 1], moveY[MOVE_COUNT - 1], 0);
+            fanMenu.onTouchEvent(up);
+            up.recycle();
+            fanMenu.dismiss();
+            for (int i = 0; i < animFrameCount; i++) {
+                nextFrame(isMeasured);
+            }
+
+            if (isMeasured) {
+                allocBytes += getAllocatedBytes() - allocStart;
+            }
+        }
+
+        /**
+         * 推进一帧的时钟（执行到期的消息和Choreographer回调），然后绘制
+         */
+        private void nextFrame(boolean isMeasured) {
+            long cpuStart = threadBean.getCurrentThreadCpuTime();
+            ShadowLooper.idleMainLooper(FRAME_INTERVAL, TimeUnit.MILLISECONDS);
+            fanMenu.drawFrame(canvas);
+            if (isMeasured) {
+                frameCpuNanos.record(threadBean.getCurrentThreadCpuTime() - cpuStart);
+            }
+        }
+
+        void release() {
+            fanMenu.release(container);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jerry.fanmenu.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FanFrameDrawer的动画时间表
+ */
+public class FanFrameDrawerTest {
+    private static final int TOTAL_ANIM_DURATION = 500;
+    private static final int EACH_ANIM_DURATION = 200;
+
+    private static void assertSchedule(int count) {
+        float[] animStart = new float[count];
+        float[] animEnd = new float[count];
+        FanFrameDrawer.calSchedule(animStart, animEnd, count, TOTAL_ANIM_DURATION, EACH_ANIM_DURATION);
+        assertEquals(0, animStart[0], 0);
+        // 最后一个图标正好在总时长结束
+        assertEquals(TOTAL_ANIM_DURATION, animEnd[count - 1], 1e-3f);
+        for (int i = 0; i < count; i++) {
+            assertEquals(EACH_ANIM_DURATION, animEnd[i] - animStart[i], 1e-3f);
+            if (i > 0) {
+                assertTrue("Item " + i + " is not staggered", animStart[i] > animStart[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void scheduleFewItems() {
+        assertSchedule(2);
+        assertSchedule(20);
+    }
+
+    @Test
+    public void scheduleOffsetBelowOneMillisecond() {
+        // 每个图标的偏移不到1毫秒，仍然要错开
+        assertSchedule(500);
+    }
+
+    @Test
+    public void scheduleSingleItem() {
+        float[] animStart = new float[1];
+        float[] animEnd = new float[1];
+        FanFrameDrawer.calSchedule(animStart, animEnd, 1, TOTAL_ANIM_DURATION, EACH_ANIM_DURATION);
+        assertEquals(0, animStart[0], 0);
+        assertEquals(EACH_ANIM_DURATION, animEnd[0], 0);
+    }
+}
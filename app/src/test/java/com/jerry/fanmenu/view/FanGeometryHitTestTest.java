@@ -0,0 +1,211 @@
+package com.jerry.fanmenu.view;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按(环, 角度桶)查表的命中检测和逐个扇形线性扫描的结果一致
+ */
+public class FanGeometryHitTestTest {
+    // 离扇形边界的角度（度）和距离（像素），太近的点两种算法的浮点误差可能不同，不参与比较
+    private static final double EPSILON_ANGLE = 1e-3;
+    private static final double EPSILON_RADIUS = 1e-2;
+    private static final int RANDOM_POINT_COUNT = 20000;
+    private static final int GRID_STEP = 8;
+
+    @Test
+    public void singleRing() {
+        assertEquivalent(1080, 1920, 1080, 1920, uniformIcons(5, 144), false);
+        assertEquivalent(1080, 1920, 540, 960, uniformIcons(8, 144), false);
+    }
+
+    @Test
+    public void singleRingClippedByContainer() {
+        // 第0环两端都被容器边界截掉
+        assertEquivalent(720, 560, 700, 540, uniformIcons(4, 120), false);
+        assertEquivalent(1080, 1920, 0, 0, uniformIcons(6, 144), false);
+    }
+
+    @Test
+    public void multiRing() {
+        assertEquivalent(1080, 1920, 540, 960, uniformIcons(20, 144), true);
+        assertEquivalent(1080, 1920, 540, 960, uniformIcons(100, 144), true);
+        assertEquivalent(1920, 1080, 1800, 1000, uniformIcons(40, 96), true);
+    }
+
+    @Test
+    public void multiRingMixedIconSizes() {
+        Random random = new Random(7);
+        int[] iconSizes = new int[60];
+        for (int i = 0; i < iconSizes.length; i++) {
+            iconSizes[i] = 64 + random.nextInt(96);
+        }
+        assertEquivalent(1080, 1920, 300, 700, iconSizes, true);
+    }
+
+    @Test
+    public void allRingsFull() {
+        // 超出所有圆环的容量，剩下的图标挤在最后一环上
+        assertEquivalent(1080, 1920, 540, 960, uniformIcons(500, 144), true);
+    }
+
+    private static int[] uniformIcons(int count, int size) {
+        int[] iconSizes = new int[count];
+        Arrays.fill(iconSizes, size);
+        return iconSizes;
+    }
+
+    private static void assertEquivalent(int width, int height, float touchX, float touchY, int[] iconSizes, boolean isMultiRing) {
+        FanGeometry geometry = new FanGeometry();
+        geometry.layout(width, height, touchX, touchY, iconSizes, iconSizes.length);
+        if (isMultiRing) {
+            assertTrue("Expected more than one ring", geometry.getRingCount() > 1);
+        }
+        LinearScan scan = new LinearScan(geometry, width, height, iconSizes);
+
+        int compared = 0;
+        // 整个容器（以及外面一圈）的网格
+        for (int x = -GRID_STEP * 4; x <= width + GRID_STEP * 4; x += GRID_STEP) {
+            for (int y = -GRID_STEP * 4; y <= height + GRID_STEP * 4; y += GRID_STEP) {
+                compared += compare(geometry, scan, x, y);
+            }
+        }
+        // 集中在各个圆环附近的随机点
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_POINT_COUNT; i++) {
+            int ring = random.nextInt(geometry.getRingCount());
+            double radius = geometry.getRingRadius(ring) + (random.nextDouble() - 0.5) * 2 * scan.maxIconSize;
+            double angle = Math.toRadians(random.nextDouble() * (FanGeometry.TOTAL_ANGLE + 10) - 5);
+            float x = width - (float) (radius * Math.sin(angle));
+            float y = height - (float) (radius * Math.cos(angle));
+            compared += compare(geometry, scan, x, y);
+        }
+        assertTrue("Too few points compared", compared > RANDOM_POINT_COUNT / 2);
+    }
+
+    /**
+     * @return 比较过的点数（离边界太近的点跳过）
+     */
+    private static int compare(FanGeometry geometry, LinearScan scan, float x, float y) {
+        if (scan.isNearBoundary(x, y)) {
+            return 0;
+        }
+        assertEquals("Hit test at (" + x + ", " + y + ")", scan.hitTest(x, y), geometry.hitTest(x, y));
+        return 1;
+    }
+
+    /**
+     * 参考实现：用精确的反正切和平方根逐个检查每个扇形
+     */
+    private static final class LinearScan {
+        private final int width;
+        private final int height;
+        private final int maxIconSize;
+        private final double[] ringRadius;
+        private final double[] startAngle;
+        private final double[] endAngle;
+        private final double[] innerRadius;
+        private final double[] outerRadius;
+
+        LinearScan(FanGeometry geometry, int width, int height, int[] iconSizes) {
+            this.width = width;
+            this.height = height;
+            int count = geometry.getCount();
+            int ringCount = geometry.getRingCount();
+            int max = 0;
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, iconSizes[i]);
+            }
+            maxIconSize = max;
+            ringRadius = new double[ringCount];
+            for (int ring = 0; ring < ringCount; ring++) {
+                ringRadius[ring] = geometry.getRingRadius(ring);
+            }
+
+            // 由图标中心到圆心的距离找出每个图标所在的环
+            int[] ringOf = new int[count];
+            int[] ringItemCount = new int[ringCount];
+            int[] ringFirstItem = new int[ringCount];
+            Arrays.fill(ringFirstItem, -1);
+            for (int i = 0; i < count; i++) {
+                double distance = Math.hypot(width - geometry.getCenterX(i), height - geometry.getCenterY(i));
+                int nearest = 0;
+                for (int ring = 1; ring < ringCount; ring++) {
+                    if (Math.abs(ringRadius[ring] - distance) < Math.abs(ringRadius[nearest] - distance)) {
+                        nearest = ring;
+                    }
+                }
+                ringOf[i] = nearest;
+                if (ringFirstItem[nearest] < 0) {
+                    ringFirstItem[nearest] = i;
+                }
+                ringItemCount[nearest]++;
+            }
+
+            // 同一环上的图标按顺序均分这一环的可见角度
+            startAngle = new double[count];
+            endAngle = new double[count];
+            innerRadius = new double[count];
+            outerRadius = new double[count];
+            for (int i = 0; i < count; i++) {
+                int ring = ringOf[i];
+                int slot = i - ringFirstItem[ring];
+                assertTrue("Items on ring " + ring + " are not contiguous", slot < ringItemCount[ring]);
+                double ringStart = geometry.getRingStartAngle(ring);
+                double slotAngle = (geometry.getRingEndAngle(ring) - ringStart) / ringItemCount[ring];
+                startAngle[i] = ringStart + slotAngle * slot;
+                endAngle[i] = ringStart + slotAngle * (slot + 1);
+                int bitmapRadius = iconSizes[i] / 2;
+                innerRadius[i] = Math.max(0, ringRadius[ring] - bitmapRadius);
+                outerRadius[i] = ringRadius[ring] + bitmapRadius;
+            }
+        }
+
+        private double angleOf(float x, float y) {
+            return Math.toDegrees(Math.atan2(width - x, height - y));
+        }
+
+        private double distanceOf(float x, float y) {
+            return Math.hypot(width - x, height - y);
+        }
+
+        /**
+         * 是否离某个扇形的边界或两个圆环的分界太近
+         */
+        boolean isNearBoundary(float x, float y) {
+            double angle = angleOf(x, y);
+            double distance = distanceOf(x, y);
+            for (double radius : ringRadius) {
+                if (Math.abs(Math.abs(distance - radius) - Math.max(1, maxIconSize) / 2.0) < EPSILON_RADIUS) {
+                    return true;
+                }
+            }
+            for (int i = 0; i < startAngle.length; i++) {
+                if (Math.abs(angle - startAngle[i]) < EPSILON_ANGLE || Math.abs(angle - endAngle[i]) < EPSILON_ANGLE
+                        || Math.abs(distance - innerRadius[i]) < EPSILON_RADIUS || Math.abs(distance - outerRadius[i]) < EPSILON_RADIUS) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int hitTest(float x, float y) {
+            if (x > width || y > height) {
+                return -1;
+            }
+            double angle = angleOf(x, y);
+            double distance = distanceOf(x, y);
+            for (int i = 0; i < startAngle.length; i++) {
+                if (angle >= startAngle[i] && angle < endAngle[i] && distance >= innerRadius[i] && distance <= outerRadius[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.jerry.fanmenu.view;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FanGeometry的布局和命中检测
+ */
+public class FanGeometryTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int ICON_SIZE = 100;
+    // 离边界的角度（度），避开浮点误差
+    private static final float EPSILON_ANGLE = 0.05f;
+
+    private FanGeometry geometry;
+
+    @Before
+    public void setUp() {
+        geometry = new FanGeometry();
+    }
+
+    /**
+     * 在右下角触摸，3个图标都在半径500的第0环上，每个扇形30度
+     */
+    private void layoutThreeIcons() {
+        geometry.layout(WIDTH, HEIGHT, WIDTH, HEIGHT, icons(3), 3);
+    }
+
+    private static int[] icons(int count) {
+        int[] iconSizes = new int[count];
+        Arrays.fill(iconSizes, ICON_SIZE);
+        return iconSizes;
+    }
+
+    /**
+     * 按到右下角的距离和角度命中检测
+     */
+    private int hitPolar(int width, int height, float radius, float angle) {
+        double rad = Math.toRadians(angle);
+        return geometry.hitTest(width - (float) (radius * Math.sin(rad)), height - (float) (radius * Math.cos(rad)));
+    }
+
+    @Test
+    public void layoutSingleRing() {
+        layoutThreeIcons();
+        assertEquals(3, geometry.getCount());
+        assertEquals(1, geometry.getRingCount());
+        assertEquals(FanGeometry.PAN_MIN_RADIUS, geometry.getFanRadius(), 0);
+        assertEquals(0, geometry.getRingStartAngle(0), 0);
+        assertEquals(FanGeometry.TOTAL_ANGLE, geometry.getRingEndAngle(0), 0);
+        assertEquals(30, geometry.getFanAngle(), 1e-4f);
+    }
+
+    @Test
+    public void hitSlotBoundaries() {
+        layoutThreeIcons();
+        assertEquals(0, hitPolar(WIDTH, HEIGHT, 500, EPSILON_ANGLE));
+        assertEquals(0, hitPolar(WIDTH, HEIGHT, 500, 30 - EPSILON_ANGLE));
+        assertEquals(1, hitPolar(WIDTH, HEIGHT, 500, 30 + EPSILON_ANGLE));
+        assertEquals(1, hitPolar(WIDTH, HEIGHT, 500, 60 - EPSILON_ANGLE));
+        assertEquals(2, hitPolar(WIDTH, HEIGHT, 500, 60 + EPSILON_ANGLE));
+    }
+
+    @Test
+    public void hitLastSlot() {
+        layoutThreeIcons();
+        assertEquals(2, hitPolar(WIDTH, HEIGHT, 500, 75));
+        assertEquals(2, hitPolar(WIDTH, HEIGHT, 500, 90 - EPSILON_ANGLE));
+        // 正好在水平方向上
+        assertEquals(2, geometry.hitTest(WIDTH - 500, HEIGHT - 1));
+    }
+
+    @Test
+    public void hitIconCenters() {
+        geometry.layout(WIDTH, HEIGHT, WIDTH / 2f, HEIGHT / 2f, icons(20), 20);
+        for (int i = 0; i < geometry.getCount(); i++) {
+            assertEquals(i, geometry.hitTest(geometry.getCenterX(i), geometry.getCenterY(i)));
+        }
+    }
+
+    @Test
+    public void missOutsideAngleRange() {
+        layoutThreeIcons();
+        // 在圆心的右边或下边
+        assertEquals(-1, geometry.hitTest(WIDTH + 10, HEIGHT - 500));
+        assertEquals(-1, geometry.hitTest(WIDTH - 500, HEIGHT + 10));
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, 500, -EPSILON_ANGLE));
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, 500, 90 + EPSILON_ANGLE));
+    }
+
+    @Test
+    public void missBeforeRingStartAngle() {
+        // 容器太矮，靠近竖直方向的部分超出容器，第0环从19度左右开始
+        int height = 520;
+        geometry.layout(WIDTH, height, WIDTH, height, icons(3), 3);
+        float startAngle = geometry.getRingStartAngle(0);
+        assertEquals(Math.toDegrees(Math.acos(height / 550.0)), startAngle, 1e-3f);
+        assertEquals(-1, hitPolar(WIDTH, height, 500, startAngle / 2));
+        assertEquals(-1, hitPolar(WIDTH, height, 500, startAngle - EPSILON_ANGLE));
+        assertEquals(0, hitPolar(WIDTH, height, 500, startAngle + EPSILON_ANGLE));
+    }
+
+    @Test
+    public void missOutsideRadius() {
+        layoutThreeIcons();
+        // 选中范围是半径450~550
+        assertEquals(1, hitPolar(WIDTH, HEIGHT, 451, 45));
+        assertEquals(1, hitPolar(WIDTH, HEIGHT, 549, 45));
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, 449, 45));
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, 551, 45));
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, 100, 45));
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, 5000, 45));
+    }
+
+    @Test
+    public void missAtCorner() {
+        layoutThreeIcons();
+        assertEquals(-1, geometry.hitTest(WIDTH, HEIGHT));
+        assertEquals(-1, geometry.hitTest(0, 0));
+    }
+
+    @Test
+    public void touchAtTopLeftCorner() {
+        // 离圆心最远的触摸点，半径被容器高度限制
+        geometry.layout(WIDTH, HEIGHT, 0, 0, icons(5), 5);
+        assertEquals(HEIGHT - ICON_SIZE / 2, geometry.getFanRadius(), 0);
+        assertEquals(0, geometry.getRingStartAngle(0), 0);
+        float endAngle = geometry.getRingEndAngle(0);
+        assertEquals(FanGeometry.TOTAL_ANGLE - Math.toDegrees(Math.acos(WIDTH / (float) HEIGHT)), endAngle, 1e-3f);
+        for (int i = 0; i < geometry.getCount(); i++) {
+            assertEquals(i, geometry.hitTest(geometry.getCenterX(i), geometry.getCenterY(i)));
+        }
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, geometry.getFanRadius(), endAngle + EPSILON_ANGLE));
+    }
+
+    @Test
+    public void containerSmallerThanFan() {
+        // 容器放不下最小半径的扇形，可见角度范围为空，只放一个图标并且永远选不中
+        geometry.layout(100, 100, 50, 50, icons(3), 3);
+        assertEquals(3, geometry.getCount());
+        assertTrue(geometry.getRingCount() >= 1);
+        assertEquals(geometry.getRingStartAngle(0), geometry.getRingEndAngle(0), 0);
+        for (int x = -50; x <= 150; x += 10) {
+            for (int y = -50; y <= 150; y += 10) {
+                assertEquals(-1, geometry.hitTest(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void emptyContainer() {
+        geometry.layout(0, 0, 0, 0, icons(1), 1);
+        assertEquals(-1, geometry.hitTest(0, 0));
+        assertEquals(-1, geometry.hitTest(-10, -10));
+    }
+
+    @Test
+    public void missAfterReset() {
+        layoutThreeIcons();
+        geometry.reset();
+        assertEquals(0, geometry.getCount());
+        assertEquals(-1, hitPolar(WIDTH, HEIGHT, 500, 45));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectZeroCount() {
+        geometry.layout(WIDTH, HEIGHT, WIDTH, HEIGHT, icons(3), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectTooFewIcons() {
+        geometry.layout(WIDTH, HEIGHT, WIDTH, HEIGHT, icons(2), 3);
+    }
+}
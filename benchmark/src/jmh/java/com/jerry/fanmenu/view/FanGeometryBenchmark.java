@@ -0,0 +1,96 @@
+package com.jerry.fanmenu.view;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+
+/**
+ * 扇形菜单布局计算和命中检测的基准测试
+ * <p>
+ * 对应FanView.initAnim中的布局计算和FanView.onTouchEvent中每个MOVE事件的命中检测。
+ * 图标较多时会分成多个圆环，命中检测的耗时应当不随itemCount增长
+ */
+@State(Scope.Thread)
+public class FanGeometryBenchmark {
+    // MOVE采样点个数（2的幂，方便取模）
+    private static final int SAMPLE_COUNT = 1024;
+    // 图标尺寸
+    private static final int ICON_SIZE = 144;
+
+    @Param({"5", "20", "100", "500"})
+    public int itemCount;
+
+    @Param({"720x1280", "1080x1920", "1600x2560"})
+    public String containerSize;
+
+    // 长按的位置：容器中心、靠近右下角、靠近左上角
+    @Param({"center", "corner", "far"})
+    public String touchPosition;
+
+    private int containerWidth;
+    private int containerHeight;
+    private float touchX;
+    private float touchY;
+    private int[] iconSizes;
+
+    private FanGeometry geometry;
+    private float[] moveX;
+    private float[] moveY;
+    private int moveIndex;
+
+    @Setup
+    public void setUp() {
+        String[] size = containerSize.split("x");
+        containerWidth = Integer.parseInt(size[0]);
+        containerHeight = Integer.parseInt(size[1]);
+
+        switch (touchPosition) {
+            case "corner":
+                touchX = containerWidth * 0.9f;
+                touchY = containerHeight * 0.9f;
+                break;
+            case "far":
+                touchX = containerWidth * 0.1f;
+                touchY = containerHeight * 0.1f;
+                break;
+            default:
+                touchX = containerWidth * 0.5f;
+                touchY = containerHeight * 0.5f;
+                break;
+        }
+
+        iconSizes = new int[itemCount];
+        Arrays.fill(iconSizes, ICON_SIZE);
+
+        geometry = new FanGeometry();
+        geometry.layout(containerWidth, containerHeight, touchX, touchY, iconSizes, itemCount);
+
+        // 一半采样点沿着各个圆环的弧线滑动（会命中），另一半随机分布在容器内
+        moveX = new float[SAMPLE_COUNT];
+        moveY = new float[SAMPLE_COUNT];
+        FanMoveSamples.fill(geometry, containerWidth, containerHeight, ICON_SIZE, 2, moveX, moveY);
+    }
+
+    /**
+     * 完整布局（每次弹出菜单时执行一次）
+     */
+    @Benchmark
+    public FanGeometry layout() {
+        geometry.layout(containerWidth, containerHeight, touchX, touchY, iconSizes, itemCount);
+        return geometry;
+    }
+
+    /**
+     * 单个MOVE事件的命中检测
+     */
+    @Benchmark
+    public int hitTest() {
+        int index = moveIndex;
+        moveIndex = (index + 1) & (SAMPLE_COUNT - 1);
+        return geometry.hitTest(moveX[index], moveY[index]);
+    }
+}
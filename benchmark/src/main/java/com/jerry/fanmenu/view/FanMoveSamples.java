@@ -0,0 +1,52 @@
+package com.jerry.fanmenu.view;
+
+import java.util.Random;
+
+/**
+ * 基准测试和预算检查共用的MOVE采样点
+ * <p>
+ * 大部分采样点沿着各个圆环的弧线分布（半径上下浮动半个图标，会命中），其余随机分布在容器内。
+ * 使用固定的随机种子，每次运行的采样点都相同
+ */
+final class FanMoveSamples {
+    private static final long SEED = 42;
+
+    private FanMoveSamples() {
+    }
+
+    /**
+     * 生成采样点
+     *
+     * @param geometry     已经完成布局的几何计算
+     * @param width        容器宽度
+     * @param height       容器高度
+     * @param iconSize     图标尺寸
+     * @param missInterval 每几个采样点中有一个随机分布在容器内（2表示一半）
+     * @param moveX        输出的x坐标，长度即采样点个数
+     * @param moveY        输出的y坐标，长度和moveX相同
+     */
+    static void fill(FanGeometry geometry, int width, int height, int iconSize, int missInterval, float[] moveX, float[] moveY) {
+        if (missInterval < 1) {
+            throw new IllegalArgumentException("Invalid missInterval " + missInterval);
+        }
+        if (moveX.length != moveY.length) {
+            throw new IllegalArgumentException("moveX and moveY have different lengths");
+        }
+        Random random = new Random(SEED);
+        int ringCount = geometry.getRingCount();
+        int ring = 0;
+        for (int i = 0; i < moveX.length; i++) {
+            if (i % missInterval != missInterval - 1) {
+                float startAngle = geometry.getRingStartAngle(ring);
+                double angle = Math.toRadians(startAngle + (geometry.getRingEndAngle(ring) - startAngle) * random.nextFloat());
+                float radius = geometry.getRingRadius(ring) + (random.nextFloat() - 0.5f) * iconSize;
+                moveX[i] = width - (float) (radius * Math.sin(angle));
+                moveY[i] = height - (float) (radius * Math.cos(angle));
+                ring = (ring + 1) % ringCount;
+            } else {
+                moveX[i] = random.nextFloat() * width;
+                moveY[i] = random.nextFloat() * height;
+            }
+        }
+    }
+}
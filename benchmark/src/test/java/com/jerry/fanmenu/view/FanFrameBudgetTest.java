@@ -0,0 +1,235 @@
+package com.jerry.fanmenu.view;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 扇形菜单每帧绘制开销的预算检查（纯JVM，不需要设备）
+ * <p>
+ * 用{@link FanFrameDrawer}回放入场动画和一串MOVE事件，由{@link FanRecordingRenderer}统计每帧的绘制次数和位图切换次数，
+ * 同时测量每帧分配的字节数。每种图标个数和绘制模式是一个单独的用例，任何一项超出预算时用例失败。
+ * <p>
+ * 运行：./gradlew :benchmark:test
+ * <p>
+ * 预算可以用系统属性调整：
+ * fan.budget.maxAllocBytesPerFrame 每帧平均分配的字节数（默认0），
+ * fan.budget.maxExtraDrawOps 每帧绘制次数最多比图标个数多几次（默认1，图层加放大的选中图标），
+ * fan.budget.maxAtlasBinds 使用图集时每帧最多切换几次位图（默认2，图层加选中图标），
+ * fan.budget.maxLayerDrawOps 绘制缓存图层的帧最多绘制几次（默认2，和图标个数无关），
+ * fan.budget.maxLayerBinds 绘制缓存图层的帧最多切换几次位图（默认2）
+ */
+@RunWith(Parameterized.class)
+public class FanFrameBudgetTest {
+    private static final int[] ITEM_COUNTS = {5, 20, 100, 500};
+    private static final int CONTAINER_WIDTH = 1080;
+    private static final int CONTAINER_HEIGHT = 1920;
+    private static final int ICON_SIZE = 144;
+    private static final int TOTAL_ANIM_DURATION = 500;
+    private static final int EACH_ANIM_DURATION = 200;
+    // 60fps的帧间隔
+    private static final int FRAME_INTERVAL = 16;
+    // 每个场景回放的MOVE事件个数
+    private static final int MOVE_COUNT = 256;
+    // 测量前先完整回放几遍，让JIT编译完成
+    private static final int WARMUP_ROUNDS = 20;
+
+    // 图标都已解码，每个图标单独绘制
+    private static final int MODE_ICONS = 0;
+    // 图标都已解码并拼成图集
+    private static final int MODE_ATLAS = 1;
+    // 图标都还在后台解码，只画占位圆
+    private static final int MODE_PLACEHOLDER = 2;
+    private static final String[] MODE_NAMES = {"icons", "atlas", "placeholder"};
+
+    private static final long MAX_ALLOC_BYTES_PER_FRAME = Long.getLong("fan.budget.maxAllocBytesPerFrame", 0);
+    private static final int MAX_EXTRA_DRAW_OPS = Integer.getInteger("fan.budget.maxExtraDrawOps", 1);
+    private static final int MAX_ATLAS_BINDS = Integer.getInteger("fan.budget.maxAtlasBinds", 2);
+    private static final int MAX_LAYER_DRAW_OPS = Integer.getInteger("fan.budget.maxLayerDrawOps", 2);
+    private static final int MAX_LAYER_BINDS = Integer.getInteger("fan.budget.maxLayerBinds", 2);
+
+    // 不支持统计分配字节数时为空，跳过分配预算
+    private static com.sun.management.ThreadMXBean allocBean;
+
+    private final int itemCount;
+    private final int mode;
+
+    public FanFrameBudgetTest(String name, int itemCount, int mode) {
+        this.itemCount = itemCount;
+        this.mode = mode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> scenarios() {
+        List<Object[]> scenarios = new ArrayList<>();
+        for (int itemCount : ITEM_COUNTS) {
+            for (int mode = MODE_ICONS; mode <= MODE_PLACEHOLDER; mode++) {
+                scenarios.add(new Object[]{MODE_NAMES[mode] + "/" + itemCount, itemCount, mode});
+            }
+        }
+        return scenarios;
+    }
+
+    @BeforeClass
+    public static void enableAllocCounter() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            allocBean = (com.sun.management.ThreadMXBean) threadBean;
+            allocBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            System.out.println("Thread allocation counter is not supported, allocation budget is skipped");
+        }
+    }
+
+    @Test
+    public void frameBudget() {
+        Scenario scenario = new Scenario(itemCount, mode);
+        FanRecordingRenderer renderer = new FanRecordingRenderer(scenario.getFrameCount(), false);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            renderer.reset();
+            scenario.play(renderer);
+        }
+
+        renderer.reset();
+        long threadId = Thread.currentThread().getId();
+        long allocStart = allocBean != null ? allocBean.getThreadAllocatedBytes(threadId) : 0;
+        scenario.play(renderer);
+        long allocBytes = allocBean != null ? allocBean.getThreadAllocatedBytes(threadId) - allocStart : 0;
+
+        int frameCount = renderer.getFrameCount();
+        int maxDraw = renderer.getMaxDrawCount();
+        int maxBind = renderer.getMaxBindCount();
+        // 绘制缓存图层的帧单独统计，开销不能随图标个数增长
+        int maxLayerDraw = 0;
+        int maxLayerBind = 0;
+        for (int i = scenario.getLayerFrameStart(); i < frameCount; i++) {
+            maxLayerDraw = Math.max(maxLayerDraw, renderer.getDrawCount(i));
+            maxLayerBind = Math.max(maxLayerBind, renderer.getBindCount(i));
+        }
+        System.out.println(String.format("%s/%d: frames=%d maxDraw=%d maxBind=%d layerDraw=%d layerBind=%d allocBytes=%d", MODE_NAMES[mode], itemCount,
+                frameCount, maxDraw, maxBind, maxLayerDraw, maxLayerBind, allocBean != null ? allocBytes : -1));
+
+        // 按总量比较，不用整除后的每帧平均值，否则每帧不足1字节的分配会被截掉
+        if (allocBean != null) {
+            assertTrue(allocBytes + " bytes allocated in " + frameCount + " frames, budget is " + MAX_ALLOC_BYTES_PER_FRAME + " per frame",
+                    allocBytes <= MAX_ALLOC_BYTES_PER_FRAME * frameCount);
+        }
+        assertTrue(maxDraw + " draw ops in a frame, budget is " + (itemCount + MAX_EXTRA_DRAW_OPS),
+                maxDraw <= itemCount + MAX_EXTRA_DRAW_OPS);
+        int bindBudget;
+        switch (mode) {
+            case MODE_ATLAS:
+                bindBudget = MAX_ATLAS_BINDS;
+                break;
+            case MODE_PLACEHOLDER:
+                bindBudget = 0;
+                break;
+            default:
+                // 每个图标一张位图，加上图层
+                bindBudget = itemCount + 1;
+                break;
+        }
+        assertTrue(maxBind + " bitmap bindings in a frame, budget is " + bindBudget, maxBind <= bindBudget);
+        assertTrue(maxLayerDraw + " draw ops in a layer frame, budget is " + MAX_LAYER_DRAW_OPS, maxLayerDraw <= MAX_LAYER_DRAW_OPS);
+        assertTrue(maxLayerBind + " bitmap bindings in a layer frame, budget is " + MAX_LAYER_BINDS, maxLayerBind <= MAX_LAYER_BINDS);
+    }
+
+    /**
+     * 一次完整的弹出：入场动画的每一帧，然后在展开的扇形上滑动（先逐个绘制，再绘制缓存的图层）
+     */
+    private static final class Scenario implements FanFrameDrawer.Icons {
+        private final int itemCount;
+        private final int mode;
+        private final int[] iconSizes;
+        private final FanGeometry geometry = new FanGeometry();
+        private final FanFrameDrawer frameDrawer = new FanFrameDrawer(this);
+        private final float[] moveX = new float[MOVE_COUNT];
+        private final float[] moveY = new float[MOVE_COUNT];
+        // 第一帧绘制缓存图层的帧序号
+        private int layerFrameStart;
+
+        Scenario(int itemCount, int mode) {
+            this.itemCount = itemCount;
+            this.mode = mode;
+
+            iconSizes = new int[itemCount];
+            Arrays.fill(iconSizes, ICON_SIZE);
+            float touchX = CONTAINER_WIDTH * 0.5f;
+            float touchY = CONTAINER_HEIGHT * 0.5f;
+            geometry.layout(CONTAINER_WIDTH, CONTAINER_HEIGHT, touchX, touchY, iconSizes, itemCount);
+
+            float[] animStart = new float[itemCount];
+            float[] animEnd = new float[itemCount];
+            FanFrameDrawer.calSchedule(animStart, animEnd, itemCount, TOTAL_ANIM_DURATION, EACH_ANIM_DURATION);
+            FanEasing[] easingTables = new FanEasing[itemCount];
+            Arrays.fill(easingTables, new FanEasing(FanEasing.OVERSHOOT));
+            frameDrawer.setLayout(geometry, itemCount, CONTAINER_WIDTH, CONTAINER_HEIGHT, iconSizes, animStart, animEnd, EACH_ANIM_DURATION, easingTables);
+            frameDrawer.setLayerBounds(0, 0, CONTAINER_WIDTH, CONTAINER_HEIGHT);
+
+            // 沿着各个圆环的弧线滑动，每4个点中有1个落在扇形外
+            FanMoveSamples.fill(geometry, CONTAINER_WIDTH, CONTAINER_HEIGHT, ICON_SIZE, 4, moveX, moveY);
+        }
+
+        int getFrameCount() {
+            int animFrameCount = TOTAL_ANIM_DURATION / FRAME_INTERVAL + 2;
+            // 占位圆模式没有图层
+            return animFrameCount + MOVE_COUNT * (mode == MODE_PLACEHOLDER ? 1 : 2);
+        }
+
+        void play(FanRecordingRenderer renderer) {
+            boolean isAtlasReady = mode == MODE_ATLAS;
+            // 入场动画，最后一帧正好停在动画结束的时刻
+            for (int time = 0; ; time += FRAME_INTERVAL) {
+                float curTime = Math.min(time, TOTAL_ANIM_DURATION);
+                renderer.beginFrame();
+                frameDrawer.draw(renderer, curTime, -1, false, isAtlasReady);
+                renderer.endFrame();
+                if (curTime >= TOTAL_ANIM_DURATION) {
+                    break;
+                }
+            }
+
+            playMoves(renderer, false, isAtlasReady);
+            layerFrameStart = renderer.getFrameCount();
+            if (mode != MODE_PLACEHOLDER) {
+                playMoves(renderer, true, isAtlasReady);
+            }
+        }
+
+        /**
+         * @return 第一帧绘制缓存图层的帧序号（没有图层时等于总帧数）
+         */
+        int getLayerFrameStart() {
+            return layerFrameStart;
+        }
+
+        private void playMoves(FanRecordingRenderer renderer, boolean isLayerReady, boolean isAtlasReady) {
+            for (int i = 0; i < MOVE_COUNT; i++) {
+                int selIndex = geometry.hitTest(moveX[i], moveY[i]);
+                renderer.beginFrame();
+                frameDrawer.draw(renderer, TOTAL_ANIM_DURATION, selIndex, isLayerReady, isAtlasReady);
+                renderer.endFrame();
+            }
+        }
+
+        @Override
+        public int getIconWidth(int index) {
+            return mode == MODE_PLACEHOLDER ? 0 : ICON_SIZE;
+        }
+
+        @Override
+        public int getIconHeight(int index) {
+            return mode == MODE_PLACEHOLDER ? 0 : ICON_SIZE;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jerry.fanmenu.view;
+
+/**
+ * 只记录不绘制的{@link FanRenderer}，统计每一帧的绘制次数和位图切换次数
+ * <p>
+ * 统计数组在创建时一次分配好，记录过程中不分配对象（开启日志时除外），可以和分配字节数一起测量
+ */
+final class FanRecordingRenderer implements FanRenderer {
+    private final int[] bindCounts;
+    private final int[] drawCounts;
+    private final int[] placeholderCounts;
+    // 每个操作的文字记录，为空时不记录
+    private final StringBuilder log;
+
+    private int frameCount;
+    private boolean isInFrame;
+
+    /**
+     * @param maxFrameCount 最多记录的帧数
+     * @param logEnabled    是否记录每个操作（会分配对象，测量分配字节数时不要开启）
+     */
+    FanRecordingRenderer(int maxFrameCount, boolean logEnabled) {
+        bindCounts = new int[maxFrameCount];
+        drawCounts = new int[maxFrameCount];
+        placeholderCounts = new int[maxFrameCount];
+        log = logEnabled ? new StringBuilder() : null;
+    }
+
+    /**
+     * 开始记录新的一帧
+     */
+    void beginFrame() {
+        if (isInFrame) {
+            throw new IllegalStateException("Frame " + frameCount + " is not ended");
+        }
+        if (frameCount >= bindCounts.length) {
+            throw new IllegalStateException("Too many frames, max frame count is " + bindCounts.length);
+        }
+        bindCounts[frameCount] = 0;
+        drawCounts[frameCount] = 0;
+        placeholderCounts[frameCount] = 0;
+        isInFrame = true;
+        if (log != null) {
+            log.append("frame ").append(frameCount).append('\n');
+        }
+    }
+
+    /**
+     * 结束当前帧
+     */
+    void endFrame() {
+        checkInFrame();
+        isInFrame = false;
+        frameCount++;
+    }
+
+    @Override
+    public void bindBitmap(int bitmap) {
+        checkInFrame();
+        bindCounts[frameCount]++;
+        if (log != null) {
+            log.append("  bind ");
+            if (bitmap == BITMAP_LAYER) {
+                log.append("layer");
+            } else if (bitmap == BITMAP_ATLAS) {
+                log.append("atlas");
+            } else {
+                log.append("icon ").append(bitmap);
+            }
+            log.append('\n');
+        }
+    }
+
+    @Override
+    public void drawBitmap(int index, float left, float top, float right, float bottom) {
+        checkInFrame();
+        drawCounts[frameCount]++;
+        if (log != null) {
+            log.append("  drawBitmap ").append(index).append(" [").append(left).append(", ").append(top)
+                    .append(", ").append(right).append(", ").append(bottom).append("]\n");
+        }
+    }
+
+    @Override
+    public void drawPlaceholder(float centerX, float centerY, float radius) {
+        checkInFrame();
+        placeholderCounts[frameCount]++;
+        if (log != null) {
+            log.append("  drawPlaceholder (").append(centerX).append(", ").append(centerY).append(") r=").append(radius).append('\n');
+        }
+    }
+
+    private void checkInFrame() {
+        if (!isInFrame) {
+            throw new IllegalStateException("Draw outside of a frame");
+        }
+    }
+
+    /**
+     * 清空记录，重新从第0帧开始
+     */
+    void reset() {
+        if (isInFrame) {
+            throw new IllegalStateException("Frame " + frameCount + " is not ended");
+        }
+        frameCount = 0;
+        if (log != null) {
+            log.setLength(0);
+        }
+    }
+
+    int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @param frame 帧序号
+     * @return 这一帧切换位图的次数
+     */
+    int getBindCount(int frame) {
+        return bindCounts[frame];
+    }
+
+    /**
+     * @param frame 帧序号
+     * @return 这一帧的绘制次数（位图和占位圆）
+     */
+    int getDrawCount(int frame) {
+        return drawCounts[frame] + placeholderCounts[frame];
+    }
+
+    /**
+     * @param frame 帧序号
+     * @return 这一帧绘制占位圆的次数
+     */
+    int getPlaceholderCount(int frame) {
+        return placeholderCounts[frame];
+    }
+
+    /**
+     * @return 所有帧中最多的位图切换次数
+     */
+    int getMaxBindCount() {
+        int max = 0;
+        for (int i = 0; i < frameCount; i++) {
+            max = Math.max(max, bindCounts[i]);
+        }
+        return max;
+    }
+
+    /**
+     * @return 所有帧中最多的绘制次数
+     */
+    int getMaxDrawCount() {
+        int max = 0;
+        for (int i = 0; i < frameCount; i++) {
+            max = Math.max(max, getDrawCount(i));
+        }
+        return max;
+    }
+
+    /**
+     * @return 每个操作的文字记录，没有开启日志时返回空字符串
+     */
+    String getLog() {
+        return log != null ? log.toString() : "";
+    }
+}